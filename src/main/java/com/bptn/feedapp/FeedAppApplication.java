@@ -3,10 +3,12 @@ package com.bptn.feedapp;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.annotation.PropertySources;
 
 @EnableAsync
+@EnableScheduling
 @SpringBootApplication
 @PropertySources({
     @PropertySource("classpath:application.yml"),
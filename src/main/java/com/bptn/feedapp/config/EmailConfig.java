@@ -0,0 +1,62 @@
+package com.bptn.feedapp.config;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class EmailConfig {
+
+	@Value("${email.executor.core-size}")
+	private int coreSize;
+
+	@Value("${email.executor.max-size}")
+	private int maxSize;
+
+	@Value("${email.executor.queue-capacity}")
+	private int queueCapacity;
+
+	/*
+	 * Runs the rejected task on the caller's thread, so a signup spike slows the
+	 * requests down instead of dropping emails, and counts how often it happens.
+	 */
+	public static class CountingCallerRunsPolicy implements RejectedExecutionHandler {
+		final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+		private final LongAdder rejected = new LongAdder();
+		private final ThreadPoolExecutor.CallerRunsPolicy delegate = new ThreadPoolExecutor.CallerRunsPolicy();
+
+		@Override
+		public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+			this.rejected.increment();
+			this.logger.debug("Email Executor Saturated, running on the caller thread");
+			this.delegate.rejectedExecution(task, executor);
+		}
+
+		public long getRejectedCount() {
+			return this.rejected.sum();
+		}
+	}
+
+	@Bean
+	ThreadPoolTaskExecutor emailExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+		executor.setThreadNamePrefix("email-");
+		executor.setCorePoolSize(this.coreSize);
+		executor.setMaxPoolSize(this.maxSize);
+		executor.setQueueCapacity(this.queueCapacity);
+		executor.setRejectedExecutionHandler(new CountingCallerRunsPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		executor.setAwaitTerminationSeconds(10);
+
+		return executor;
+	}
+}
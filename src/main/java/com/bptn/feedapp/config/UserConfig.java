@@ -0,0 +1,61 @@
+package com.bptn.feedapp.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class UserConfig {
+
+	@Value("${user.password.threads}")
+	private int hashThreads;
+
+	@Value("${user.password.queue-capacity}")
+	private int hashQueueCapacity;
+
+	@Value("${user.import.threads}")
+	private int importThreads;
+
+	@Value("${user.import.batch-size}")
+	private int importBatchSize;
+
+	/*
+	 * Hashes and checks the passwords of logins and signups, one thread per core
+	 * unless configured otherwise. A full queue rejects the task, see
+	 * BoundedPasswordEncoder.
+	 */
+	@Bean
+	ThreadPoolTaskExecutor hashExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		int threads = this.hashThreads > 0 ? this.hashThreads : Runtime.getRuntime().availableProcessors();
+
+		executor.setThreadNamePrefix("hash-");
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(this.hashQueueCapacity);
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+
+		return executor;
+	}
+
+	/*
+	 * Hashes the passwords of imported users, BCrypt is what limits an import.
+	 * A fixed pool sized for the cores an import may use, a full queue makes
+	 * the importing thread hash as well.
+	 */
+	@Bean
+	ThreadPoolTaskExecutor importExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+		executor.setThreadNamePrefix("import-");
+		executor.setCorePoolSize(this.importThreads);
+		executor.setMaxPoolSize(this.importThreads);
+		executor.setQueueCapacity(this.importBatchSize);
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+		return executor;
+	}
+}
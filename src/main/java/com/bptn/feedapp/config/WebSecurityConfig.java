@@ -7,14 +7,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import com.bptn.feedapp.filter.CustomAuthEntryPoint;
 import com.bptn.feedapp.filter.JwtAuthorizationFilter;
 import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.security.BoundedPasswordEncoder;
 
 import org.springframework.context.annotation.Bean;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 
+import static jakarta.servlet.DispatcherType.ASYNC;
 import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
@@ -32,9 +35,12 @@ public class WebSecurityConfig {
 	@Autowired
 	CustomAuthEntryPoint customAuthEntryPoint;
 
+	@Value("${user.password.strength}")
+	private int strength;
+
 	@Bean
-	PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	BoundedPasswordEncoder passwordEncoder(@Qualifier("hashExecutor") ThreadPoolTaskExecutor hashExecutor) {
+		return new BoundedPasswordEncoder(this.strength, hashExecutor);
 	}
 
 	@Bean
@@ -43,10 +49,12 @@ public class WebSecurityConfig {
 		return authenticationConfiguration.getAuthenticationManager();
 	}
 
+	/* Streamed responses finish in an async dispatch, the request itself was already authorized */
 	@Bean
 	SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 		http.cors().and().csrf().disable().sessionManagement().sessionCreationPolicy(STATELESS).and()
-				.authorizeHttpRequests().requestMatchers(this.provider.getJwtExcludedUrls()).permitAll().anyRequest()
+				.authorizeHttpRequests().dispatcherTypeMatchers(ASYNC).permitAll()
+				.requestMatchers(this.provider.getJwtExcludedUrls()).permitAll().anyRequest()
 				.authenticated().and().exceptionHandling().authenticationEntryPoint(this.customAuthEntryPoint).and()
 				.addFilterBefore(this.jwtAuthorizationFilter, UsernamePasswordAuthenticationFilter.class);
 
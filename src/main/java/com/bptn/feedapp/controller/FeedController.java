@@ -1,8 +1,12 @@
 package com.bptn.feedapp.controller;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,12 +14,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.bptn.feedapp.domain.CursorResponse;
 import com.bptn.feedapp.domain.PageResponse;
+import com.bptn.feedapp.domain.TrendingFeed;
 import com.bptn.feedapp.jpa.Feed;
 import com.bptn.feedapp.jpa.FeedMetaData;
 import com.bptn.feedapp.service.FeedService;
+import com.bptn.feedapp.service.FeedViewCache;
+import com.bptn.feedapp.service.TrendingService;
 
 @CrossOrigin
 @RestController
@@ -26,6 +35,12 @@ public class FeedController {
 	@Autowired
 	FeedService feedService;
 
+	@Autowired
+	FeedViewCache feedViewCache;
+
+	@Autowired
+	TrendingService trendingService;
+
 	@PostMapping
 	public Feed createFeed(@RequestBody Feed feed) {
 		logger.debug("Creating Feed");
@@ -34,28 +49,98 @@ public class FeedController {
 	}
 
 	@GetMapping("/{feedId}")
-	public Feed getFeed(@PathVariable int feedId) {
-		logger.debug("Getting Feed, feedId: {}", feedId);
+	public ResponseEntity<byte[]> getFeed(@PathVariable int feedId, @RequestParam(defaultValue = "false") boolean preview) {
+		logger.debug("Getting Feed, feedId: {}, preview: {}", feedId, preview);
+
+		byte[] view = this.feedViewCache.get(feedId, preview, () -> this.feedService.getFeedbyId(feedId, preview));
 
-		return this.feedService.getFeedbyId(feedId);
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(view);
+	}
+
+	@GetMapping("/{feedId}/comments")
+	public CursorResponse<FeedMetaData> getFeedComments(@PathVariable int feedId,
+			@RequestParam(required = false) String before, @RequestParam(defaultValue = "20") int limit) {
+		logger.debug("Getting Feed Comments, feedId: {}, before: {}, limit: {}", feedId, before, limit);
+
+		return this.feedService.getFeedMetaData(feedId, false, before, limit);
+	}
+
+	@GetMapping("/{feedId}/likes")
+	public CursorResponse<FeedMetaData> getFeedLikes(@PathVariable int feedId,
+			@RequestParam(required = false) String before, @RequestParam(defaultValue = "20") int limit) {
+		logger.debug("Getting Feed Likes, feedId: {}, before: {}, limit: {}", feedId, before, limit);
+
+		return this.feedService.getFeedMetaData(feedId, true, before, limit);
 	}
 
 	@GetMapping("/user/{pageNum}/{pageSize}")
-	public PageResponse<Feed> getUserFeeds(@PathVariable int pageNum, @PathVariable int pageSize) {
+	public PageResponse<Feed> getUserFeeds(@PathVariable int pageNum, @PathVariable int pageSize,
+			@RequestParam(defaultValue = "false") boolean preview) {
 		logger.debug("Getting User Feeds List, pageNum: {}, pageSize: {}", pageNum, pageSize);
 
-		return this.feedService.getUserFeeds(pageNum, pageSize);
+		return this.feedService.getUserFeeds(pageNum, pageSize, preview);
 	}
 
 	@GetMapping("/other/{pageNum}/{pageSize}")
-	public PageResponse<Feed> getOtherUsersFeeds(@PathVariable int pageNum, @PathVariable int pageSize){
+	public PageResponse<Feed> getOtherUsersFeeds(@PathVariable int pageNum, @PathVariable int pageSize,
+			@RequestParam(defaultValue = "false") boolean preview){
 		
 		logger.debug("Getting Other Users Feeds list, pagenum: {}, pageSize: {}", pageNum, pageSize);
 		
-		return this.feedService.getOtherUsersFeeds(pageNum, pageSize);
+		return this.feedService.getOtherUsersFeeds(pageNum, pageSize, preview);
 	}
 	
 	
+	@GetMapping("/user")
+	public CursorResponse<Feed> getUserFeeds(@RequestParam(required = false) String before,
+			@RequestParam(defaultValue = "20") int limit, @RequestParam(defaultValue = "false") boolean preview) {
+		logger.debug("Getting User Feeds List, before: {}, limit: {}", before, limit);
+
+		return this.feedService.getUserFeeds(before, limit, preview);
+	}
+
+	@GetMapping("/other")
+	public CursorResponse<Feed> getOtherUsersFeeds(@RequestParam(required = false) String before,
+			@RequestParam(defaultValue = "20") int limit, @RequestParam(defaultValue = "false") boolean preview) {
+		logger.debug("Getting Other Users Feeds List, before: {}, limit: {}", before, limit);
+
+		return this.feedService.getOtherUsersFeeds(before, limit, preview);
+	}
+
+	@GetMapping("/search")
+	public List<Feed> searchFeeds(@RequestParam String q, @RequestParam(defaultValue = "20") int limit,
+			@RequestParam(defaultValue = "false") boolean preview) {
+		logger.debug("Searching Feeds, q: {}, limit: {}", q, limit);
+
+		return this.feedService.searchFeeds(q, limit, preview);
+	}
+
+	/* Served from memory, only feeds whose view is not cached are loaded */
+	@GetMapping("/trending")
+	public List<TrendingFeed> getTrending(@RequestParam(defaultValue = "20") int limit) {
+		logger.debug("Getting Trending Feeds, limit: {}", limit);
+
+		return this.trendingService.getTrending(limit,
+				feedId -> this.feedViewCache.get(feedId, true, () -> this.feedService.getFeedbyId(feedId, true)));
+	}
+
+	@GetMapping("/timeline")
+	public CursorResponse<Feed> getTimeline(@RequestParam(required = false) String before,
+			@RequestParam(defaultValue = "20") int limit, @RequestParam(defaultValue = "false") boolean preview,
+			@RequestParam(defaultValue = "false") boolean following) {
+		logger.debug("Getting Timeline, before: {}, limit: {}, following: {}", before, limit, following);
+
+		return this.feedService.getTimeline(before, limit, preview, following);
+	}
+
+	@GetMapping("/tag/{tag}")
+	public CursorResponse<Feed> getTaggedFeeds(@PathVariable String tag, @RequestParam(required = false) String before,
+			@RequestParam(defaultValue = "20") int limit, @RequestParam(defaultValue = "false") boolean preview) {
+		logger.debug("Getting Tagged Feeds, tag: {}, before: {}, limit: {}", tag, before, limit);
+
+		return this.feedService.getTaggedFeeds(tag, before, limit, preview);
+	}
+
 	@PostMapping("/meta/{feedId}")
 	public FeedMetaData createFeedMetaData(@PathVariable int feedId, @RequestBody FeedMetaData meta) {
 
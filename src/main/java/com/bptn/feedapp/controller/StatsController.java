@@ -0,0 +1,65 @@
+package com.bptn.feedapp.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bptn.feedapp.domain.CacheStatistics;
+import com.bptn.feedapp.domain.EmailStatistics;
+import com.bptn.feedapp.domain.HashStatistics;
+import com.bptn.feedapp.domain.JwtStatistics;
+import com.bptn.feedapp.security.BoundedPasswordEncoder;
+import com.bptn.feedapp.security.JwtService;
+import com.bptn.feedapp.service.EmailService;
+import com.bptn.feedapp.service.FeedViewCache;
+
+@CrossOrigin
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	FeedViewCache feedViewCache;
+
+	@Autowired
+	JwtService jwtService;
+
+	@Autowired
+	EmailService emailService;
+
+	@Autowired
+	BoundedPasswordEncoder passwordEncoder;
+
+	@GetMapping("/feeds")
+	public CacheStatistics getFeedCacheStatistics() {
+		logger.debug("Getting Feed Cache Statistics");
+
+		return this.feedViewCache.getStatistics();
+	}
+
+	@GetMapping("/jwt")
+	public JwtStatistics getJwtStatistics() {
+		logger.debug("Getting JWT Statistics");
+
+		return this.jwtService.getStatistics();
+	}
+
+	@GetMapping("/email")
+	public EmailStatistics getEmailStatistics() {
+		logger.debug("Getting Email Statistics");
+
+		return this.emailService.getStatistics();
+	}
+
+	@GetMapping("/hash")
+	public HashStatistics getHashStatistics() {
+		logger.debug("Getting Password Hash Statistics");
+
+		return this.passwordEncoder.getStatistics();
+	}
+}
@@ -1,31 +1,46 @@
 package com.bptn.feedapp.controller;
 
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.HttpStatus.OK;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Timestamp;
 import java.time.Instant;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.bptn.feedapp.domain.CursorResponse;
+import com.bptn.feedapp.domain.FollowStatus;
+import com.bptn.feedapp.domain.ImportReport;
+import com.bptn.feedapp.domain.MentionNotification;
 import com.bptn.feedapp.jpa.Profile;
 import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.service.FollowService;
+import com.bptn.feedapp.service.TagService;
+import com.bptn.feedapp.service.UserImportService;
 import com.bptn.feedapp.service.UserService;
 import com.fasterxml.jackson.databind.JsonNode;
 
-@CrossOrigin(exposedHeaders = "Authorization")
+@CrossOrigin(exposedHeaders = { "Authorization", "Refresh-Token" })
 @RestController
 @RequestMapping("/user")
 public class UserController {
@@ -35,10 +50,44 @@ public class UserController {
 	@Autowired
 	UserService userService;
 
+	@Autowired
+	UserImportService userImportService;
+
+	@Autowired
+	FollowService followService;
+
+	@Autowired
+	TagService tagService;
+
 	@GetMapping("/")
-	public List<User> listUsers() {
-		logger.debug("The listUsers() method was invoked!");
-		return this.userService.listUsers();
+	public CursorResponse<User> listUsers(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "20") int limit) {
+		logger.debug("The listUsers() method was invoked!, after: {}, limit: {}", after, limit);
+		return this.userService.listUsers(after, limit);
+	}
+
+	/* Every user as newline delimited JSON, streamed while it is read */
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportUsers() {
+		logger.debug("Exporting Users");
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(this.userService::exportUsers);
+	}
+
+	/* Bulk import of users from CSV or newline delimited JSON */
+	@PostMapping(value = "/import", consumes = { "text/csv", MediaType.APPLICATION_NDJSON_VALUE })
+	public ImportReport importUsers(@RequestHeader(CONTENT_TYPE) String contentType, InputStream body)
+			throws IOException {
+		logger.debug("Importing Users, contentType: {}", contentType);
+
+		return this.userImportService.importUsers(body, MediaType.parseMediaType(contentType));
+	}
+
+	@GetMapping("/available")
+	public Map<String, Boolean> checkAvailability(@RequestParam(required = false) String username,
+			@RequestParam(required = false) String emailId) {
+		logger.debug("Checking availability, username={}, emailId={}", username, emailId);
+		return this.userService.checkAvailability(username, emailId);
 	}
 
 	@GetMapping("/{username}")
@@ -84,7 +133,7 @@ public class UserController {
 		user = this.userService.authenticate(user);
 		
 		/* Generate JWT and HTTP Header */
-		HttpHeaders jwtHeader = this.userService.generateJwtHeader(user.getUsername());
+		HttpHeaders jwtHeader = this.userService.generateJwtHeader(user);
 		
 		logger.debug("User Authenticated, username: {}", user.getUsername());
 		
@@ -92,6 +141,15 @@ public class UserController {
 	}
 	
 	
+	@PostMapping("/token/refresh")
+	public ResponseEntity<Void> refreshToken(@RequestBody JsonNode json) {
+		logger.debug("Refreshing Token");
+
+		HttpHeaders jwtHeader = this.userService.refreshJwtHeader(json.path("refreshToken").asText(null));
+
+		return new ResponseEntity<>(jwtHeader, OK);
+	}
+
 	@PostMapping("/signup")
 	public User signup(@RequestBody User user) {
 		
@@ -139,4 +197,33 @@ public class UserController {
 		return this.userService.updateUserProfile(profile);
 	}
 
+	@GetMapping("/follow/{username}")
+	public FollowStatus getFollowStatus(@PathVariable String username) {
+		logger.debug("Getting Follow Status, username: {}", username);
+
+		return this.followService.getStatus(username);
+	}
+
+	@PostMapping("/follow/{username}")
+	public FollowStatus follow(@PathVariable String username) {
+		logger.debug("Following User, username: {}", username);
+
+		return this.followService.follow(username);
+	}
+
+	@DeleteMapping("/follow/{username}")
+	public FollowStatus unfollow(@PathVariable String username) {
+		logger.debug("Unfollowing User, username: {}", username);
+
+		return this.followService.unfollow(username);
+	}
+
+	@GetMapping("/mentions")
+	public CursorResponse<MentionNotification> getMentions(@RequestParam(required = false) String before,
+			@RequestParam(defaultValue = "20") int limit) {
+		logger.debug("Getting Mentions, before: {}, limit: {}", before, limit);
+
+		return this.tagService.getMentions(before, limit);
+	}
+
 }
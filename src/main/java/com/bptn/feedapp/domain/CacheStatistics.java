@@ -0,0 +1,49 @@
+package com.bptn.feedapp.domain;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public class CacheStatistics {
+	String name;
+	long size;
+	long hitCount;
+	long missCount;
+	double hitRate;
+	long evictionCount;
+
+	public CacheStatistics(String name, long size, long hitCount, long missCount, long evictionCount) {
+		this.name = name;
+		this.size = size;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.hitRate = hitCount + missCount == 0 ? 1.0 : (double) hitCount / (hitCount + missCount);
+		this.evictionCount = evictionCount;
+	}
+
+	public static CacheStatistics of(String name, long size, CacheStats stats) {
+		return new CacheStatistics(name, size, stats.hitCount(), stats.missCount(), stats.evictionCount());
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	public double getHitRate() {
+		return hitRate;
+	}
+
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+}
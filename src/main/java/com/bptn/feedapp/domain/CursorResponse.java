@@ -0,0 +1,95 @@
+package com.bptn.feedapp.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+import com.bptn.feedapp.exception.domain.InvalidCursorException;
+
+public class CursorResponse<T> {
+	public static final int DEFAULT_LIMIT = 20;
+	public static final int MAX_LIMIT = 100;
+
+	private static final String CURSOR_PREFIX = "id:";
+
+	int limit;
+	String nextCursor;
+	List<T> content;
+
+	public CursorResponse(List<T> content, int limit, String nextCursor) {
+		this.content = content;
+		this.limit = limit;
+		this.nextCursor = nextCursor;
+	}
+
+	/*
+	 * Builds a response from a slice fetched with limit + 1 rows. The extra row
+	 * only tells us that another page exists, so it is dropped and the cursor
+	 * points at the last row returned to the client.
+	 */
+	public static <T> CursorResponse<T> of(List<T> rows, int limit, ToIntFunction<T> idOf) {
+		if (rows.size() <= limit) {
+			return new CursorResponse<>(rows, limit, null);
+		}
+
+		List<T> content = rows.subList(0, limit);
+
+		return new CursorResponse<>(content, limit, encode(idOf.applyAsInt(content.get(limit - 1))));
+	}
+
+	/* Keeps client supplied page sizes within sane bounds */
+	public static int clampLimit(int limit) {
+		return Math.max(1, Math.min(limit, MAX_LIMIT));
+	}
+
+	public static String encode(int id) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/* Returns the id the cursor points at, or the given default when no cursor was sent */
+	public static int decode(String cursor, int defaultId) {
+		if (Optional.ofNullable(cursor).filter(c -> !c.isBlank()).isEmpty()) {
+			return defaultId;
+		}
+
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+			if (!decoded.startsWith(CURSOR_PREFIX)) {
+				throw new InvalidCursorException(String.format("Invalid cursor, %s", cursor));
+			}
+
+			return Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+		} catch (IllegalArgumentException ex) {
+			throw new InvalidCursorException(String.format("Invalid cursor, %s", cursor));
+		}
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+}
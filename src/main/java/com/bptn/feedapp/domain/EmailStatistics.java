@@ -0,0 +1,75 @@
+package com.bptn.feedapp.domain;
+
+public class EmailStatistics {
+	int poolSize;
+	int activeCount;
+	int queueSize;
+	int queueCapacity;
+	long completedTaskCount;
+	long rejectedCount;
+	int transportQueueSize;
+	long sessionsOpened;
+	long batchesSent;
+	long messagesSent;
+	long failureCount;
+
+	public EmailStatistics(int poolSize, int activeCount, int queueSize, int queueCapacity, long completedTaskCount,
+			long rejectedCount, int transportQueueSize, long sessionsOpened, long batchesSent, long messagesSent,
+			long failureCount) {
+		this.poolSize = poolSize;
+		this.activeCount = activeCount;
+		this.queueSize = queueSize;
+		this.queueCapacity = queueCapacity;
+		this.completedTaskCount = completedTaskCount;
+		this.rejectedCount = rejectedCount;
+		this.transportQueueSize = transportQueueSize;
+		this.sessionsOpened = sessionsOpened;
+		this.batchesSent = batchesSent;
+		this.messagesSent = messagesSent;
+		this.failureCount = failureCount;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	public int getActiveCount() {
+		return activeCount;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public long getCompletedTaskCount() {
+		return completedTaskCount;
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount;
+	}
+
+	public int getTransportQueueSize() {
+		return transportQueueSize;
+	}
+
+	public long getSessionsOpened() {
+		return sessionsOpened;
+	}
+
+	public long getBatchesSent() {
+		return batchesSent;
+	}
+
+	public long getMessagesSent() {
+		return messagesSent;
+	}
+
+	public long getFailureCount() {
+		return failureCount;
+	}
+}
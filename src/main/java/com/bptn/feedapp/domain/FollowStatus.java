@@ -0,0 +1,32 @@
+package com.bptn.feedapp.domain;
+
+public class FollowStatus {
+	String username;
+	boolean following;
+	int followerCount;
+	int followingCount;
+
+	public FollowStatus(String username, boolean following, int followerCount, int followingCount) {
+		this.username = username;
+		this.following = following;
+		this.followerCount = followerCount;
+		this.followingCount = followingCount;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	/* Whether the signed in user follows this user */
+	public boolean isFollowing() {
+		return following;
+	}
+
+	public int getFollowerCount() {
+		return followerCount;
+	}
+
+	public int getFollowingCount() {
+		return followingCount;
+	}
+}
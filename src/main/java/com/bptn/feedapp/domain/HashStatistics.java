@@ -0,0 +1,75 @@
+package com.bptn.feedapp.domain;
+
+public class HashStatistics {
+	int strength;
+	int poolSize;
+	int activeCount;
+	int queueSize;
+	int queueCapacity;
+	long hashCount;
+	long rejectedCount;
+	long upgradeCount;
+	double meanHashMillis;
+	double maxHashMillis;
+	double meanWaitMillis;
+
+	public HashStatistics(int strength, int poolSize, int activeCount, int queueSize, int queueCapacity,
+			long hashCount, long rejectedCount, long upgradeCount, double meanHashMillis, double maxHashMillis,
+			double meanWaitMillis) {
+		this.strength = strength;
+		this.poolSize = poolSize;
+		this.activeCount = activeCount;
+		this.queueSize = queueSize;
+		this.queueCapacity = queueCapacity;
+		this.hashCount = hashCount;
+		this.rejectedCount = rejectedCount;
+		this.upgradeCount = upgradeCount;
+		this.meanHashMillis = meanHashMillis;
+		this.maxHashMillis = maxHashMillis;
+		this.meanWaitMillis = meanWaitMillis;
+	}
+
+	public int getStrength() {
+		return strength;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	public int getActiveCount() {
+		return activeCount;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public long getHashCount() {
+		return hashCount;
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount;
+	}
+
+	public long getUpgradeCount() {
+		return upgradeCount;
+	}
+
+	public double getMeanHashMillis() {
+		return meanHashMillis;
+	}
+
+	public double getMaxHashMillis() {
+		return maxHashMillis;
+	}
+
+	public double getMeanWaitMillis() {
+		return meanWaitMillis;
+	}
+}
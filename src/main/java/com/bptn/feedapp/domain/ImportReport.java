@@ -0,0 +1,63 @@
+package com.bptn.feedapp.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+
+	public record Reject(int line, String reason) {
+	}
+
+	int maxRejects;
+	int total;
+	int imported;
+	int rejected;
+	long elapsedMillis;
+	List<Reject> rejects = new ArrayList<>();
+
+	public ImportReport(int maxRejects) {
+		this.maxRejects = maxRejects;
+	}
+
+	/* Counts every reject, only the first maxRejects are listed */
+	public void reject(int line, String reason) {
+		this.rejected++;
+
+		if (this.rejects.size() < this.maxRejects) {
+			this.rejects.add(new Reject(line, reason));
+		}
+	}
+
+	public void addTotal(int count) {
+		this.total += count;
+	}
+
+	public void addImported(int count) {
+		this.imported += count;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public int getImported() {
+		return imported;
+	}
+
+	public int getRejected() {
+		return rejected;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public List<Reject> getRejects() {
+		return rejects;
+	}
+
+}
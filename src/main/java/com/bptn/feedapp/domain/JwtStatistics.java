@@ -0,0 +1,32 @@
+package com.bptn.feedapp.domain;
+
+public class JwtStatistics {
+	long verificationCount;
+	long failureCount;
+	double verificationsPerSecond;
+	CacheStatistics cache;
+
+	public JwtStatistics(long verificationCount, long failureCount, double verificationsPerSecond,
+			CacheStatistics cache) {
+		this.verificationCount = verificationCount;
+		this.failureCount = failureCount;
+		this.verificationsPerSecond = verificationsPerSecond;
+		this.cache = cache;
+	}
+
+	public long getVerificationCount() {
+		return verificationCount;
+	}
+
+	public long getFailureCount() {
+		return failureCount;
+	}
+
+	public double getVerificationsPerSecond() {
+		return verificationsPerSecond;
+	}
+
+	public CacheStatistics getCache() {
+		return cache;
+	}
+}
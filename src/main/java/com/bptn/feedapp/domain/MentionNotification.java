@@ -0,0 +1,27 @@
+package com.bptn.feedapp.domain;
+
+import java.sql.Timestamp;
+
+public class MentionNotification {
+	int feedId;
+	String authorUsername;
+	Timestamp createdOn;
+
+	public MentionNotification(int feedId, String authorUsername, Timestamp createdOn) {
+		this.feedId = feedId;
+		this.authorUsername = authorUsername;
+		this.createdOn = createdOn;
+	}
+
+	public int getFeedId() {
+		return feedId;
+	}
+
+	public String getAuthorUsername() {
+		return authorUsername;
+	}
+
+	public Timestamp getCreatedOn() {
+		return createdOn;
+	}
+}
@@ -0,0 +1,30 @@
+package com.bptn.feedapp.domain;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+public class TrendingFeed {
+	int feedId;
+	double score;
+	String feed;
+
+	public TrendingFeed(int feedId, double score, String feed) {
+		this.feedId = feedId;
+		this.score = score;
+		this.feed = feed;
+	}
+
+	public int getFeedId() {
+		return feedId;
+	}
+
+	/* Decayed like and comment weight as of the request */
+	public double getScore() {
+		return score;
+	}
+
+	/* The cached preview view of the feed, embedded as is */
+	@JsonRawValue
+	public String getFeed() {
+		return feed;
+	}
+}
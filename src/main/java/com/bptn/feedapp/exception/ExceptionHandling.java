@@ -4,6 +4,7 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
 import static org.springframework.http.HttpStatus.METHOD_NOT_ALLOWED;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
 import java.util.Objects;
@@ -33,7 +34,12 @@ import com.bptn.feedapp.exception.domain.EmailNotFoundException;
 import com.bptn.feedapp.exception.domain.EmailNotVerifiedException;
 import com.bptn.feedapp.exception.domain.FeedNotFoundException;
 import com.bptn.feedapp.exception.domain.FeedNotUserException;
+import com.bptn.feedapp.exception.domain.FollowSelfException;
+import com.bptn.feedapp.exception.domain.InvalidCursorException;
+import com.bptn.feedapp.exception.domain.InvalidRefreshTokenException;
 import com.bptn.feedapp.exception.domain.LikeExistException;
+import com.bptn.feedapp.exception.domain.LikeQueueFullException;
+import com.bptn.feedapp.exception.domain.PasswordHashingBusyException;
 import com.bptn.feedapp.exception.domain.UserNotFoundException;
 import com.bptn.feedapp.exception.domain.UsernameExistException;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
@@ -98,6 +104,11 @@ public class ExceptionHandling implements ErrorController {
 		return this.createHttpResponse(UNAUTHORIZED, TOKEN_EXPIRED_ERROR);
 	}
 
+	@ExceptionHandler(InvalidRefreshTokenException.class)
+	public ResponseEntity<HttpResponse> invalidRefreshTokenException(InvalidRefreshTokenException ex) {
+		return this.createHttpResponse(UNAUTHORIZED, ex.getMessage());
+	}
+
 	@ExceptionHandler(EmailExistException.class)
 	public ResponseEntity<HttpResponse> emailExistException(EmailExistException ex) {
 		return this.createHttpResponse(BAD_REQUEST, ex.getMessage());
@@ -113,6 +124,16 @@ public class ExceptionHandling implements ErrorController {
 		return this.createHttpResponse(BAD_REQUEST, ex.getMessage());
 	}
 
+	@ExceptionHandler(LikeQueueFullException.class)
+	public ResponseEntity<HttpResponse> likeQueueFullException(LikeQueueFullException ex) {
+		return this.createHttpResponse(TOO_MANY_REQUESTS, ex.getMessage());
+	}
+
+	@ExceptionHandler(PasswordHashingBusyException.class)
+	public ResponseEntity<HttpResponse> passwordHashingBusyException(PasswordHashingBusyException ex) {
+		return this.createHttpResponse(TOO_MANY_REQUESTS, ex.getMessage());
+	}
+
 	@ExceptionHandler(EmailNotFoundException.class)
 	public ResponseEntity<HttpResponse> emailNotFoundException(EmailNotFoundException ex) {
 		return this.createHttpResponse(BAD_REQUEST, ex.getMessage());
@@ -138,6 +159,16 @@ public class ExceptionHandling implements ErrorController {
 		return this.createHttpResponse(BAD_REQUEST, ex.getMessage());
 	}
 
+	@ExceptionHandler(FollowSelfException.class)
+	public ResponseEntity<HttpResponse> followSelfException(FollowSelfException ex) {
+		return this.createHttpResponse(BAD_REQUEST, ex.getMessage());
+	}
+
+	@ExceptionHandler(InvalidCursorException.class)
+	public ResponseEntity<HttpResponse> invalidCursorException(InvalidCursorException ex) {
+		return this.createHttpResponse(BAD_REQUEST, ex.getMessage());
+	}
+
 	@ExceptionHandler(HttpRequestMethodNotSupportedException.class)
 	public ResponseEntity<HttpResponse> methodNotSupportedException(HttpRequestMethodNotSupportedException ex) {
 		HttpMethod supportedMethod = Objects.requireNonNull(ex.getSupportedHttpMethods()).iterator().next();
@@ -0,0 +1,10 @@
+package com.bptn.feedapp.exception.domain;
+
+public class FollowSelfException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public FollowSelfException(String message) {
+		super(message);
+	}
+}
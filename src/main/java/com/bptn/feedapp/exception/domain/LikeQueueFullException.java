@@ -0,0 +1,10 @@
+package com.bptn.feedapp.exception.domain;
+
+public class LikeQueueFullException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public LikeQueueFullException(String message) {
+		super(message);
+	}
+}
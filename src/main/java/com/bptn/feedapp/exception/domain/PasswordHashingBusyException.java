@@ -0,0 +1,10 @@
+package com.bptn.feedapp.exception.domain;
+
+public class PasswordHashingBusyException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public PasswordHashingBusyException(String message) {
+		super(message);
+	}
+}
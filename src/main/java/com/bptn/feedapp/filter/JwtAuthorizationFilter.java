@@ -15,6 +15,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.security.CurrentUser;
 import com.bptn.feedapp.security.JwtService;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -49,8 +50,8 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
 	HandlerExceptionResolver resolver;
 
 
-	private Authentication getAuthentication(String username, HttpServletRequest req) {
-		UsernamePasswordAuthenticationToken userPasswordAuthToken = new UsernamePasswordAuthenticationToken(username,
+	private Authentication getAuthentication(CurrentUser currentUser, HttpServletRequest req) {
+		UsernamePasswordAuthenticationToken userPasswordAuthToken = new UsernamePasswordAuthenticationToken(currentUser,
 				null, null);
 		userPasswordAuthToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
 		return userPasswordAuthToken;
@@ -79,12 +80,12 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
 	    			
 	    			/* Check if the JWT is present in the Header and starts with the JWT Prefix. */
 	    			if ( this.isJwtPrefixValid(header) ){ 
-	    				/* Validate the JWT and get the username from it. */
-	    				String username = this.jwtService.getSubject(header.substring(7)); 
+	    				/* Validate the JWT and get the user from it. */
+	    				CurrentUser currentUser = this.jwtService.getCurrentUser(header.substring(7)); 
 	    				
-	    				/* Set the username in the Spring Security context for later use. */
-	    		SecurityContextHolder.getContext().setAuthentication(this.getAuthentication(username, req));			
-	    				logger.debug("User Authorized: {}", username);
+	    				/* Set the user in the Spring Security context for later use. */
+	    		SecurityContextHolder.getContext().setAuthentication(this.getAuthentication(currentUser, req));			
+	    				logger.debug("User Authorized: {}", currentUser);
 	    			}
 	    		}
 	    		
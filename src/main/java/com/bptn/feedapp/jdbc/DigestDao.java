@@ -0,0 +1,77 @@
+package com.bptn.feedapp.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bptn.feedapp.jpa.User;
+
+@Repository
+public class DigestDao {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	/* Likes and comments received by the feeds of one user */
+	public record Engagement(User user, long likes, long comments) {
+	}
+
+	public int maxUserId() {
+		Integer max = this.jdbcTemplate.queryForObject("SELECT MAX(\"userId\") FROM \"User\"", Integer.class);
+
+		return max == null ? 0 : max;
+	}
+
+	/*
+	 * Streams the engagement of the verified users in (afterUserId, endUserId],
+	 * in userId order, from one grouped query. Users without any activity in the
+	 * period are not returned, only fetchSize rows are held at a time.
+	 */
+	@Transactional(readOnly = true)
+	public void forEachEngagement(Timestamp from, Timestamp to, int afterUserId, int endUserId, int fetchSize,
+			Consumer<Engagement> consumer) {
+
+		String sql = """
+				SELECT u."userId", u."firstName", u."lastName", u.username, u."emailId",
+				       SUM(CASE WHEN m."isLike" THEN 1 ELSE 0 END) AS likes,
+				       SUM(CASE WHEN m."isLike" THEN 0 ELSE 1 END) AS comments
+				  FROM "FeedMetaData" m
+				  JOIN "Feed" f ON f."feedId" = m."feedId"
+				  JOIN "User" u ON u."userId" = f."userId"
+				 WHERE m."createdOn" >= ? AND m."createdOn" < ?
+				   AND f."userId" > ? AND f."userId" <= ?
+				   AND u."emailVerified"
+				 GROUP BY u."userId", u."firstName", u."lastName", u.username, u."emailId"
+				 ORDER BY u."userId\"""";
+
+		logger.debug("Digest Query, users: ({}, {}]", afterUserId, endUserId);
+
+		this.jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql);
+			ps.setFetchSize(fetchSize);
+			ps.setTimestamp(1, from);
+			ps.setTimestamp(2, to);
+			ps.setInt(3, afterUserId);
+			ps.setInt(4, endUserId);
+			return ps;
+		}, rs -> {
+			User user = new User();
+			user.setUserId(rs.getInt("userId"));
+			user.setFirstName(rs.getString("firstName"));
+			user.setLastName(rs.getString("lastName"));
+			user.setUsername(rs.getString("username"));
+			user.setEmailId(rs.getString("emailId"));
+
+			consumer.accept(new Engagement(user, rs.getLong("likes"), rs.getLong("comments")));
+		});
+	}
+}
@@ -0,0 +1,111 @@
+package com.bptn.feedapp.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class FeedDao {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	SequenceIdAllocator idAllocator;
+
+	/*
+	 * Adds like and comment deltas to the Feed counters. Each row is { likeDelta,
+	 * commentDelta, feedId } and all rows are sent in one JDBC batch.
+	 */
+	public int[] addCounts(List<Object[]> deltas) {
+
+		String sql = "UPDATE \"Feed\" SET \"likeCount\" = \"likeCount\" + ?, \"commentCount\" = \"commentCount\" + ? WHERE \"feedId\" = ?";
+
+		logger.debug("Update Query: {}, rows: {}", sql, deltas.size());
+
+		return this.jdbcTemplate.batchUpdate(sql, deltas);
+	}
+
+	/*
+	 * Inserts likes, each row is { feedId, actionUserId, createdOn }, in one JDBC
+	 * batch. The batch is all or nothing so a failed one can be retried row by row.
+	 */
+	@Transactional
+	public int[] insertLikes(List<Object[]> likes) {
+
+		String sql = "INSERT INTO \"FeedMetaData\" (\"feedMetaDataId\", \"feedId\", \"actionUserId\", \"isLike\", comment, \"createdOn\") VALUES (?, ?, ?, true, '', ?)";
+
+		logger.debug("Insert Query: {}, rows: {}", sql, likes.size());
+
+		/* Ids come from the entity's sequence, one sequence call per block of ids */
+		List<Object[]> rows = likes.stream().map(l -> new Object[] {
+				this.idAllocator.nextId(SequenceIdAllocator.FEED_META_DATA_SEQUENCE), l[0], l[1], l[2] }).toList();
+
+		return this.jdbcTemplate.batchUpdate(sql, rows);
+	}
+
+	public interface MetaDataConsumer {
+		void accept(int feedId, boolean isLike, long createdOn);
+	}
+
+	/* Streams the likes and comments created in [from, to), only one row is held at a time */
+	@Transactional(readOnly = true)
+	public void forEachMetaData(Timestamp from, Timestamp to, int fetchSize, MetaDataConsumer consumer) {
+
+		String sql = "SELECT \"feedId\", \"isLike\", \"createdOn\" FROM \"FeedMetaData\" WHERE \"createdOn\" >= ? AND \"createdOn\" < ?";
+
+		this.jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql);
+			ps.setFetchSize(fetchSize);
+			ps.setTimestamp(1, from);
+			ps.setTimestamp(2, to);
+			return ps;
+		}, rs -> {
+			consumer.accept(rs.getInt(1), rs.getBoolean(2), rs.getTimestamp(3).getTime());
+		});
+	}
+
+	/* Streams every feed's content in feedId order, only one row is held at a time */
+	@Transactional(readOnly = true)
+	public void forEachContent(int fetchSize, BiConsumer<Integer, String> consumer) {
+
+		String sql = "SELECT \"feedId\", content FROM \"Feed\" ORDER BY \"feedId\"";
+
+		this.jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql);
+			ps.setFetchSize(fetchSize);
+			return ps;
+		}, rs -> {
+			consumer.accept(rs.getInt(1), rs.getString(2));
+		});
+	}
+
+	/* Newest feeds containing every term, a full scan used only until the search index is loaded */
+	public List<Integer> findFeedIdsContaining(List<String> terms, int limit) {
+
+		String sql = "SELECT \"feedId\" FROM \"Feed\" WHERE "
+				+ String.join(" AND ", Collections.nCopies(terms.size(), "LOWER(content) LIKE ?"))
+				+ " ORDER BY \"feedId\" DESC LIMIT ?";
+
+		Object[] args = new Object[terms.size() + 1];
+
+		/* Terms are letters and digits only, nothing to escape */
+		for (int i = 0; i < terms.size(); i++) {
+			args[i] = "%" + terms.get(i) + "%";
+		}
+		args[terms.size()] = limit;
+
+		return this.jdbcTemplate.queryForList(sql, Integer.class, args);
+	}
+}
@@ -0,0 +1,106 @@
+package com.bptn.feedapp.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/* The follow edges, and the per-author feedIds the following timeline merges */
+@Repository
+public class FollowDao {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	public interface EdgeConsumer {
+		void accept(int followerId, int followeeId);
+	}
+
+	/* False when the edge already existed */
+	public boolean follow(int followerId, int followeeId) {
+
+		String sql = "INSERT INTO \"Follow\" (\"followerId\", \"followeeId\", \"createdOn\") VALUES (?, ?, ?)";
+
+		/* Runs outside a transaction, the failed insert leaves nothing to roll back */
+		try {
+			return this.jdbcTemplate.update(sql, followerId, followeeId, Timestamp.from(Instant.now())) > 0;
+		} catch (DuplicateKeyException ex) {
+			return false;
+		}
+	}
+
+	/* False when there was no edge */
+	public boolean unfollow(int followerId, int followeeId) {
+
+		String sql = "DELETE FROM \"Follow\" WHERE \"followerId\" = ? AND \"followeeId\" = ?";
+
+		return this.jdbcTemplate.update(sql, followerId, followeeId) > 0;
+	}
+
+	public List<Integer> findFolloweeIds(int followerId) {
+
+		String sql = "SELECT \"followeeId\" FROM \"Follow\" WHERE \"followerId\" = ? ORDER BY \"followeeId\"";
+
+		return this.jdbcTemplate.queryForList(sql, Integer.class, followerId);
+	}
+
+	public int countFollowers(int followeeId) {
+
+		String sql = "SELECT COUNT(*) FROM \"Follow\" WHERE \"followeeId\" = ?";
+
+		return this.jdbcTemplate.queryForObject(sql, Integer.class, followeeId);
+	}
+
+	/* Streams every edge grouped by follower, see UserDao on the fetch size */
+	@Transactional(readOnly = true)
+	public void forEachEdge(int fetchSize, EdgeConsumer consumer) {
+
+		String sql = "SELECT \"followerId\", \"followeeId\" FROM \"Follow\" ORDER BY \"followerId\", \"followeeId\"";
+
+		this.jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql);
+			ps.setFetchSize(fetchSize);
+			return ps;
+		}, rs -> {
+			consumer.accept(rs.getInt(1), rs.getInt(2));
+		});
+	}
+
+	/* The newest feedIds of each author, at most limit per author */
+	public void forEachNewestFeedId(Collection<Integer> authorIds, int limit, EdgeConsumer consumer) {
+
+		String sql = "SELECT \"userId\", \"feedId\" FROM (SELECT \"userId\", \"feedId\", "
+				+ "ROW_NUMBER() OVER (PARTITION BY \"userId\" ORDER BY \"feedId\" DESC) AS rn "
+				+ "FROM \"Feed\" WHERE \"userId\" IN (:authorIds)) r WHERE r.rn <= :limit";
+
+		this.namedParameterJdbcTemplate.query(sql, Map.of("authorIds", authorIds, "limit", limit), rs -> {
+			consumer.accept(rs.getInt(1), rs.getInt(2));
+		});
+	}
+
+	/* Feeds of the authors older than the given feedId, newest first, for pages past the in-memory window */
+	public List<Integer> findFeedIds(Collection<Integer> authorIds, int before, int limit) {
+
+		String sql = "SELECT \"feedId\" FROM \"Feed\" WHERE \"userId\" IN (:authorIds) AND \"feedId\" < :before "
+				+ "ORDER BY \"feedId\" DESC LIMIT :limit";
+
+		return this.namedParameterJdbcTemplate.queryForList(sql,
+				Map.of("authorIds", authorIds, "before", before, "limit", limit), Integer.class);
+	}
+}
@@ -0,0 +1,83 @@
+package com.bptn.feedapp.jdbc;
+
+import java.sql.DatabaseMetaData;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.PostgresSequenceMaxValueIncrementer;
+import org.springframework.stereotype.Component;
+
+/*
+ * Hands out ids for JDBC inserts from the same sequences the JPA entities use.
+ * Like Hibernate's pooled-lo optimizer every sequence value is the low end of a
+ * block of ALLOCATION_SIZE ids, so JDBC and JPA inserts never collide and a
+ * batch of inserts costs one sequence call per block.
+ */
+@Component
+public class SequenceIdAllocator {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/* Must match the increment of the sequences, see db/migration/V3__sequence_ids.sql */
+	public static final int ALLOCATION_SIZE = 50;
+
+	public static final String USER_SEQUENCE = "\"User_userId_seq\"";
+	public static final String PROFILE_SEQUENCE = "\"Profile_profileId_seq\"";
+	public static final String FEED_SEQUENCE = "\"Feed_feedId_seq\"";
+	public static final String FEED_META_DATA_SEQUENCE = "\"FeedMetaData_feedMetaDataId_seq\"";
+	public static final String EMAIL_OUTBOX_SEQUENCE = "\"EmailOutbox_emailOutboxId_seq\"";
+	public static final String DIGEST_CHECKPOINT_SEQUENCE = "\"DigestCheckpoint_digestCheckpointId_seq\"";
+	public static final String REFRESH_TOKEN_SEQUENCE = "\"RefreshToken_refreshTokenId_seq\"";
+
+	@Autowired
+	DataSource dataSource;
+
+	private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+	private volatile Boolean h2;
+
+	class Block {
+		final DataFieldMaxValueIncrementer incrementer;
+		long next;
+		long end;
+
+		Block(String sequence) {
+			this.incrementer = isH2() ? new H2SequenceMaxValueIncrementer(dataSource, sequence)
+					: new PostgresSequenceMaxValueIncrementer(dataSource, sequence);
+		}
+
+		synchronized long nextId() {
+			if (this.next == this.end) {
+				this.next = this.incrementer.nextLongValue();
+				this.end = this.next + ALLOCATION_SIZE;
+			}
+			return this.next++;
+		}
+	}
+
+	private boolean isH2() {
+		if (this.h2 == null) {
+			try {
+				String product = JdbcUtils.extractDatabaseMetaData(this.dataSource,
+						DatabaseMetaData::getDatabaseProductName);
+				this.h2 = "H2".equalsIgnoreCase(product);
+			} catch (MetaDataAccessException ex) {
+				throw new IllegalStateException("Cannot detect the database product", ex);
+			}
+		}
+		return this.h2;
+	}
+
+	public int nextId(String sequence) {
+		return Math.toIntExact(this.blocks.computeIfAbsent(sequence, Block::new).nextId());
+	}
+}
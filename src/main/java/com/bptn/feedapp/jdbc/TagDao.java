@@ -0,0 +1,93 @@
+package com.bptn.feedapp.jdbc;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bptn.feedapp.domain.MentionNotification;
+
+/* The hashtags and mentions extracted from feeds */
+@Repository
+public class TagDao {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	/* The userIds of the existing usernames */
+	public Map<String, Integer> findUserIds(Collection<String> usernames) {
+
+		String sql = "SELECT username, \"userId\" FROM \"User\" WHERE username IN (:usernames)";
+
+		Map<String, Integer> userIds = new HashMap<>();
+
+		this.namedParameterJdbcTemplate.query(sql, Map.of("usernames", usernames), rs -> {
+			userIds.put(rs.getString(1), rs.getInt(2));
+		});
+
+		return userIds;
+	}
+
+	/*
+	 * Inserts tags, each row is { tag, feedId }, and mentions, each row is {
+	 * userId, feedId, authorId, createdOn }, as two JDBC batches in one
+	 * transaction, so a failed one can be retried feed by feed.
+	 */
+	@Transactional
+	public void insert(List<Object[]> tags, List<Object[]> mentions) {
+
+		if (!tags.isEmpty()) {
+			this.jdbcTemplate.batchUpdate("INSERT INTO \"FeedTag\" (\"tag\", \"feedId\") VALUES (?, ?)", tags);
+		}
+
+		if (!mentions.isEmpty()) {
+			this.jdbcTemplate.batchUpdate(
+					"INSERT INTO \"Mention\" (\"userId\", \"feedId\", \"authorId\", \"createdOn\") VALUES (?, ?, ?, ?)",
+					mentions);
+		}
+	}
+
+	/* Not left to the foreign keys, a feed deleted before its tags were written has none to cascade */
+	@Transactional
+	public void deleteFeed(int feedId) {
+		this.jdbcTemplate.update("DELETE FROM \"FeedTag\" WHERE \"feedId\" = ?", feedId);
+		this.jdbcTemplate.update("DELETE FROM \"Mention\" WHERE \"feedId\" = ?", feedId);
+	}
+
+	/* Feeds with the tag older than the given feedId, newest first, served by the primary key */
+	public List<Integer> findFeedIds(String tag, int before, int limit) {
+
+		String sql = "SELECT \"feedId\" FROM \"FeedTag\" WHERE \"tag\" = ? AND \"feedId\" < ? ORDER BY \"feedId\" DESC LIMIT ?";
+
+		return this.jdbcTemplate.queryForList(sql, Integer.class, tag, before, limit);
+	}
+
+	/*
+	 * Mentions of the user older than the given feedId, newest first. Joined with
+	 * Feed, so a deleted feed is gone before its Mention rows are.
+	 */
+	public List<MentionNotification> findMentions(int userId, int before, int limit) {
+
+		String sql = "SELECT m.\"feedId\", u.username, m.\"createdOn\" FROM \"Mention\" m "
+				+ "JOIN \"Feed\" f ON f.\"feedId\" = m.\"feedId\" "
+				+ "JOIN \"User\" u ON u.\"userId\" = m.\"authorId\" "
+				+ "WHERE m.\"userId\" = ? AND m.\"feedId\" < ? ORDER BY m.\"feedId\" DESC LIMIT ?";
+
+		return this.jdbcTemplate.query(sql,
+				(rs, rowNum) -> new MentionNotification(rs.getInt(1), rs.getString(2), rs.getTimestamp(3)), userId,
+				before, limit);
+	}
+}
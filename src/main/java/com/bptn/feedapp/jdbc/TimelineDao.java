@@ -0,0 +1,41 @@
+package com.bptn.feedapp.jdbc;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/* The reads behind the home timelines, served by the Feed primary key and the (userId, feedId) index */
+@Repository
+public class TimelineDao {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	public interface FeedConsumer {
+		void accept(int feedId, int authorId);
+	}
+
+	/* The newest feeds of all users with their authors, newest first */
+	public void forEachNewestFeed(int limit, FeedConsumer consumer) {
+
+		String sql = "SELECT \"feedId\", \"userId\" FROM \"Feed\" ORDER BY \"feedId\" DESC LIMIT ?";
+
+		this.jdbcTemplate.query(sql, rs -> {
+			consumer.accept(rs.getInt(1), rs.getInt(2));
+		}, limit);
+	}
+
+	/* Feeds of other users older than the given feedId, newest first, for pages past the recent feeds */
+	public List<Integer> findOtherUsersFeedIds(int userId, int before, int limit) {
+
+		String sql = "SELECT \"feedId\" FROM \"Feed\" WHERE \"userId\" <> ? AND \"feedId\" < ? ORDER BY \"feedId\" DESC LIMIT ?";
+
+		return this.jdbcTemplate.queryForList(sql, Integer.class, userId, before, limit);
+	}
+}
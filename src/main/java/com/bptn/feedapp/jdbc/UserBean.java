@@ -2,12 +2,16 @@ package com.bptn.feedapp.jdbc;
 
 import java.sql.Timestamp;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
+
 public class UserBean {
 
 	private Integer userId;
 	private String firstName;
 	private String lastName;
 	private String username;
+	@JsonProperty(access = Access.WRITE_ONLY)
 	private String password;
 	private String phone;
 	private String emailId;
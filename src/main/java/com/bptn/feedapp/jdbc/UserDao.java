@@ -2,13 +2,26 @@ package com.bptn.feedapp.jdbc;
 
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public class UserDao {
@@ -18,6 +31,14 @@ public class UserDao {
 	@Autowired
 	JdbcTemplate jdbcTemplate;
 
+	@Autowired
+	NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Autowired
+	SequenceIdAllocator idAllocator;
+
+	private static final String INSERT_COLUMNS = "\"userId\", \"firstName\", \"lastName\", username, phone, \"emailId\", password, \"emailVerified\", \"createdOn\"";
+
 	public List<UserBean> listUsers() {
 		String sql = "SELECT * FROM \"User\"";
 
@@ -37,16 +58,132 @@ public class UserDao {
 		return users.isEmpty() ? null : users.get(0);
 	}
 
+	/*
+	 * Rows are fetched in chunks of fetchSize instead of all at once. The
+	 * Postgres driver only uses a cursor inside a transaction, hence the
+	 * read-only transactions on the streaming methods.
+	 */
+	private static PreparedStatementCreator streaming(String sql, int fetchSize) {
+		return con -> {
+			PreparedStatement ps = con.prepareStatement(sql);
+			ps.setFetchSize(fetchSize);
+			return ps;
+		};
+	}
+
+	/* Streams every username and email */
+	@Transactional(readOnly = true)
+	public void forEachUsernameAndEmail(int fetchSize, BiConsumer<String, String> consumer) {
+
+		String sql = "SELECT username, \"emailId\" FROM \"User\"";
+
+		this.jdbcTemplate.query(streaming(sql, fetchSize), rs -> {
+			consumer.accept(rs.getString(1), rs.getString(2));
+		});
+	}
+
+	/* Streams every user in userId order, only one row is mapped at a time */
+	@Transactional(readOnly = true)
+	public void forEachUser(int fetchSize, Consumer<UserBean> consumer) {
+
+		String sql = "SELECT * FROM \"User\" ORDER BY \"userId\"";
+
+		UserMapper mapper = new UserMapper();
+
+		this.jdbcTemplate.query(streaming(sql, fetchSize), rs -> {
+			consumer.accept(mapper.mapRow(rs, rs.getRow()));
+		});
+	}
+
 	public void createUser(UserBean user) {
 
-		String sql = "INSERT INTO \"User\" (\"firstName\", \"lastName\", username, phone, \"emailId\", password, \"emailVerified\", \"createdOn\") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+		String sql = "INSERT INTO \"User\" (" + INSERT_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
 		logger.debug("Insert Query: {}", sql);
 
+		/* Takes the id from the same sequence as the User entity */
+		user.setUserId(this.idAllocator.nextId(SequenceIdAllocator.USER_SEQUENCE));
+
 		/* Executes the Insert Statement */
-		this.jdbcTemplate.update(sql, new Object[] { user.getFirstName(), user.getLastName(), user.getUsername(),
+		this.jdbcTemplate.update(sql, new Object[] { user.getUserId(), user.getFirstName(), user.getLastName(), user.getUsername(),
 				user.getPhone(), user.getEmailId(), user.getPassword(), user.getEmailVerified(), user.getCreatedOn() });
 
 	}
 
+	/* The users already holding any of the usernames or emails, only those two columns are read */
+	public List<UserBean> findByUsernameOrEmailIdIn(Collection<String> usernames, Collection<String> emailIds) {
+
+		String sql = "SELECT username, \"emailId\" FROM \"User\" WHERE username IN (:usernames) OR \"emailId\" IN (:emailIds)";
+
+		return this.namedParameterJdbcTemplate.query(sql, Map.of("usernames", usernames, "emailIds", emailIds),
+				(rs, rowNum) -> {
+					UserBean user = new UserBean();
+					user.setUsername(rs.getString(1));
+					user.setEmailId(rs.getString(2));
+					return user;
+				});
+	}
+
+	/*
+	 * Inserts the users in one transaction, all or none. Postgres gets a single
+	 * COPY, other databases a JDBC batch.
+	 */
+	@Transactional
+	public void createUsers(List<UserBean> users) {
+
+		users.forEach(user -> user.setUserId(this.idAllocator.nextId(SequenceIdAllocator.USER_SEQUENCE)));
+
+		boolean copied = this.jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+			if (!con.isWrapperFor(PGConnection.class)) {
+				return false;
+			}
+
+			String sql = "COPY \"User\" (" + INSERT_COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+			try {
+				con.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(toCsv(users)));
+			} catch (IOException ex) {
+				throw new SQLException("COPY failed", ex);
+			}
+
+			return true;
+		});
+
+		if (!copied) {
+			String sql = "INSERT INTO \"User\" (" + INSERT_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+			this.jdbcTemplate.batchUpdate(sql, users, users.size(), (ps, user) -> {
+				ps.setInt(1, user.getUserId());
+				ps.setString(2, user.getFirstName());
+				ps.setString(3, user.getLastName());
+				ps.setString(4, user.getUsername());
+				ps.setString(5, user.getPhone());
+				ps.setString(6, user.getEmailId());
+				ps.setString(7, user.getPassword());
+				ps.setBoolean(8, user.getEmailVerified());
+				ps.setTimestamp(9, user.getCreatedOn());
+			});
+		}
+	}
+
+	/* COPY input, nulls are unquoted empty fields and every value is quoted */
+	private static String toCsv(List<UserBean> users) {
+		StringBuilder csv = new StringBuilder(users.size() * 160);
+
+		for (UserBean user : users) {
+			csv.append(user.getUserId());
+			for (Object value : new Object[] { user.getFirstName(), user.getLastName(), user.getUsername(),
+					user.getPhone(), user.getEmailId(), user.getPassword(), user.getEmailVerified(),
+					user.getCreatedOn() }) {
+				csv.append(',');
+				if (value != null) {
+					csv.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+				}
+			}
+			csv.append('\n');
+		}
+
+		return csv.toString();
+	}
+
 }
@@ -0,0 +1,116 @@
+package com.bptn.feedapp.jpa;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+import com.bptn.feedapp.jdbc.SequenceIdAllocator;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/* Progress of one userId partition of a digest run, so a run can be resumed */
+@Entity
+@Table(name = "\"DigestCheckpoint\"", uniqueConstraints = @UniqueConstraint(name = "\"DigestCheckpoint_periodStart_partitionStart_key\"", columnNames = { "\"periodStart\"", "\"partitionStart\"" }))
+public class DigestCheckpoint implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "digestCheckpointSequence")
+	@SequenceGenerator(name = "digestCheckpointSequence", sequenceName = SequenceIdAllocator.DIGEST_CHECKPOINT_SEQUENCE, allocationSize = SequenceIdAllocator.ALLOCATION_SIZE)
+	@Column(name = "\"digestCheckpointId\"")
+	private Integer digestCheckpointId;
+
+	@Column(name = "\"periodStart\"")
+	private Timestamp periodStart;
+
+	/* The partition covers userIds in (partitionStart, partitionEnd] */
+	@Column(name = "\"partitionStart\"")
+	private int partitionStart;
+
+	@Column(name = "\"partitionEnd\"")
+	private int partitionEnd;
+
+	/* Digests up to this userId have been handed to the mail transport */
+	@Column(name = "\"lastUserId\"")
+	private int lastUserId;
+
+	@Column(name = "\"sentCount\"")
+	private int sentCount;
+
+	@Column(name = "\"completedOn\"")
+	private Timestamp completedOn;
+
+	public DigestCheckpoint() {
+
+	}
+
+	public Integer getDigestCheckpointId() {
+		return digestCheckpointId;
+	}
+
+	public void setDigestCheckpointId(Integer digestCheckpointId) {
+		this.digestCheckpointId = digestCheckpointId;
+	}
+
+	public Timestamp getPeriodStart() {
+		return periodStart;
+	}
+
+	public void setPeriodStart(Timestamp periodStart) {
+		this.periodStart = periodStart;
+	}
+
+	public int getPartitionStart() {
+		return partitionStart;
+	}
+
+	public void setPartitionStart(int partitionStart) {
+		this.partitionStart = partitionStart;
+	}
+
+	public int getPartitionEnd() {
+		return partitionEnd;
+	}
+
+	public void setPartitionEnd(int partitionEnd) {
+		this.partitionEnd = partitionEnd;
+	}
+
+	public int getLastUserId() {
+		return lastUserId;
+	}
+
+	public void setLastUserId(int lastUserId) {
+		this.lastUserId = lastUserId;
+	}
+
+	public int getSentCount() {
+		return sentCount;
+	}
+
+	public void setSentCount(int sentCount) {
+		this.sentCount = sentCount;
+	}
+
+	public Timestamp getCompletedOn() {
+		return completedOn;
+	}
+
+	public void setCompletedOn(Timestamp completedOn) {
+		this.completedOn = completedOn;
+	}
+
+	@Override
+	public String toString() {
+		return "DigestCheckpoint [periodStart=" + periodStart + ", partitionStart=" + partitionStart + ", partitionEnd="
+				+ partitionEnd + ", lastUserId=" + lastUserId + ", sentCount=" + sentCount + ", completedOn="
+				+ completedOn + "]";
+	}
+}
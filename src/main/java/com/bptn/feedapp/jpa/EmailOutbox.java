@@ -0,0 +1,166 @@
+package com.bptn.feedapp.jpa;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+import com.bptn.feedapp.jdbc.SequenceIdAllocator;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "\"EmailOutbox\"", indexes = @Index(name = "\"EmailOutbox_status_nextAttemptOn_idx\"", columnList = "status, \"nextAttemptOn\""))
+public class EmailOutbox implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public enum Type {
+		VERIFY_EMAIL, RESET_PASSWORD
+	}
+
+	public enum Status {
+		PENDING, SENT, FAILED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "emailOutboxSequence")
+	@SequenceGenerator(name = "emailOutboxSequence", sequenceName = SequenceIdAllocator.EMAIL_OUTBOX_SEQUENCE, allocationSize = SequenceIdAllocator.ALLOCATION_SIZE)
+	@Column(name = "\"emailOutboxId\"")
+	private Integer emailOutboxId;
+
+	@Enumerated(EnumType.STRING)
+	private Type type;
+
+	@Column(name = "\"userId\"")
+	private Integer userId;
+
+	@Column(name = "\"emailId\"")
+	private String emailId;
+
+	/* Same key for the same email to the same user, only one of them may be pending */
+	@Column(name = "\"dedupKey\"")
+	private String dedupKey;
+
+	@Enumerated(EnumType.STRING)
+	private Status status;
+
+	private int attempts;
+
+	@Column(name = "\"lastError\"")
+	private String lastError;
+
+	@Column(name = "\"createdOn\"")
+	private Timestamp createdOn;
+
+	@Column(name = "\"nextAttemptOn\"")
+	private Timestamp nextAttemptOn;
+
+	@Column(name = "\"sentOn\"")
+	private Timestamp sentOn;
+
+	public EmailOutbox() {
+
+	}
+
+	public Integer getEmailOutboxId() {
+		return emailOutboxId;
+	}
+
+	public void setEmailOutboxId(Integer emailOutboxId) {
+		this.emailOutboxId = emailOutboxId;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public Integer getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Integer userId) {
+		this.userId = userId;
+	}
+
+	public String getEmailId() {
+		return emailId;
+	}
+
+	public void setEmailId(String emailId) {
+		this.emailId = emailId;
+	}
+
+	public String getDedupKey() {
+		return dedupKey;
+	}
+
+	public void setDedupKey(String dedupKey) {
+		this.dedupKey = dedupKey;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+
+	public Timestamp getCreatedOn() {
+		return createdOn;
+	}
+
+	public void setCreatedOn(Timestamp createdOn) {
+		this.createdOn = createdOn;
+	}
+
+	public Timestamp getNextAttemptOn() {
+		return nextAttemptOn;
+	}
+
+	public void setNextAttemptOn(Timestamp nextAttemptOn) {
+		this.nextAttemptOn = nextAttemptOn;
+	}
+
+	public Timestamp getSentOn() {
+		return sentOn;
+	}
+
+	public void setSentOn(Timestamp sentOn) {
+		this.sentOn = sentOn;
+	}
+
+	@Override
+	public String toString() {
+		return "EmailOutbox [emailOutboxId=" + emailOutboxId + ", type=" + type + ", userId=" + userId + ", emailId="
+				+ emailId + ", status=" + status + ", attempts=" + attempts + ", nextAttemptOn=" + nextAttemptOn + "]";
+	}
+}
@@ -4,8 +4,16 @@ import java.io.Serializable;
 import java.sql.Timestamp;
 import java.util.List;
 
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+
+import com.bptn.feedapp.domain.CursorResponse;
+import com.bptn.feedapp.jdbc.SequenceIdAllocator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -17,7 +25,9 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
 @Table(name="\"Feed\"")
@@ -26,7 +36,8 @@ public class Feed implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
 	@Id
-	@GeneratedValue(strategy=GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "feedSequence")
+	@SequenceGenerator(name = "feedSequence", sequenceName = SequenceIdAllocator.FEED_SEQUENCE, allocationSize = SequenceIdAllocator.ALLOCATION_SIZE)
 	@Column(name="\"feedId\"")
 	private Integer feedId;
 	
@@ -40,10 +51,25 @@ public class Feed implements Serializable {
 	@Column(name="\"createdOn\"")
 	private Timestamp createdOn;
 	
-	@JsonInclude(Include.NON_NULL)
-	@OneToMany(mappedBy="feed", cascade=CascadeType.ALL, fetch=FetchType.EAGER)
+	/* Denormalized counters, only ever changed by the batched UPDATEs in FeedDao */
+	@JsonProperty(access = Access.READ_ONLY)
+	@Column(name="\"likeCount\"", nullable=false, updatable=false)
+	private long likeCount;
+	
+	@JsonProperty(access = Access.READ_ONLY)
+	@Column(name="\"commentCount\"", nullable=false, updatable=false)
+	private long commentCount;
+	
+	/* Loaded for a whole timeline page at once with a single IN query instead of one query per feed */
+	@BatchSize(size = CursorResponse.MAX_LIMIT)
+	@OneToMany(mappedBy="feed", cascade=CascadeType.ALL, fetch=FetchType.LAZY)
 	private List<FeedMetaData> feedMetaData;
 	
+	/* Capped list of the newest comments, set instead of feedMetaData in preview mode */
+	@Transient
+	@JsonInclude(Include.NON_NULL)
+	private List<FeedMetaData> latestComments;
+	
 	public Feed() {
 		
 	}
@@ -88,10 +114,42 @@ public class Feed implements Serializable {
 		this.createdOn = createdOn;
 	}
 
+	public long getLikeCount() {
+		return likeCount;
+	}
+
+	public void setLikeCount(long likeCount) {
+		this.likeCount = likeCount;
+	}
+
+	public long getCommentCount() {
+		return commentCount;
+	}
+
+	public void setCommentCount(long commentCount) {
+		this.commentCount = commentCount;
+	}
+
+	@JsonIgnore
 	public List<FeedMetaData> getFeedMetaData() {
 		return feedMetaData;
 	}
 
+	/* Only serialized once loaded, preview responses never touch the collection */
+	@JsonProperty("feedMetaData")
+	@JsonInclude(Include.NON_NULL)
+	public List<FeedMetaData> getLoadedFeedMetaData() {
+		return Hibernate.isInitialized(feedMetaData) ? feedMetaData : null;
+	}
+
+	public List<FeedMetaData> getLatestComments() {
+		return latestComments;
+	}
+
+	public void setLatestComments(List<FeedMetaData> latestComments) {
+		this.latestComments = latestComments;
+	}
+
 	public void setFeedMetaData(List<FeedMetaData> feedMetaData) {
 		this.feedMetaData = feedMetaData;
 	}
@@ -99,7 +157,8 @@ public class Feed implements Serializable {
 	@Override
 	public String toString() {
 		return "Feed [feedId=" + feedId + ", user=" + user + ", content=" + content + ", picture=" + picture
-				+ ", createdOn=" + createdOn + ", feedMetaData=" + feedMetaData + "]";
+				+ ", createdOn=" + createdOn + ", likeCount=" + likeCount + ", commentCount=" + commentCount
+				+ "]";
 	}
 	
 	
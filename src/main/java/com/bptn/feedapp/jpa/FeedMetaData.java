@@ -3,28 +3,33 @@ package com.bptn.feedapp.jpa;
 import java.io.Serializable;
 import java.sql.Timestamp;
 
+import com.bptn.feedapp.jdbc.SequenceIdAllocator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name="\"FeedMetaData\"")
+@Table(name="\"FeedMetaData\"", indexes=@Index(name="\"FeedMetaData_feedId_actionUserId_isLike_idx\"", columnList="\"feedId\", \"actionUserId\", \"isLike\""))
 public class FeedMetaData implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
 	@Id
-	@GeneratedValue(strategy=GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "feedMetaDataSequence")
+	@SequenceGenerator(name = "feedMetaDataSequence", sequenceName = SequenceIdAllocator.FEED_META_DATA_SEQUENCE, allocationSize = SequenceIdAllocator.ALLOCATION_SIZE)
 	@Column(name="\"feedMetaDataId\"")
 	private Integer FeetMetaDataId;
 	
-	@ManyToOne
+	@ManyToOne(fetch=FetchType.LAZY)
 	@JsonIgnore
 	@JoinColumn(name="\"feedId\"")
 	private Feed feed;
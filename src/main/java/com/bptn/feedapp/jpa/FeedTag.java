@@ -0,0 +1,78 @@
+package com.bptn.feedapp.jpa;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/*
+ * A hashtag of a feed. Written and read through TagDao, the entity only
+ * describes the table.
+ */
+@Entity
+@IdClass(FeedTag.Key.class)
+@Table(name = "\"FeedTag\"")
+public class FeedTag implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private String tag;
+		private Integer feedId;
+
+		public Key() {
+
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key k && Objects.equals(this.tag, k.tag) && Objects.equals(this.feedId, k.feedId);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.tag, this.feedId);
+		}
+	}
+
+	@Id
+	@Column(name = "\"tag\"", length = 64)
+	private String tag;
+
+	@Id
+	@Column(name = "\"feedId\"")
+	private Integer feedId;
+
+	public FeedTag() {
+
+	}
+
+	public String getTag() {
+		return tag;
+	}
+
+	public void setTag(String tag) {
+		this.tag = tag;
+	}
+
+	public Integer getFeedId() {
+		return feedId;
+	}
+
+	public void setFeedId(Integer feedId) {
+		this.feedId = feedId;
+	}
+
+	@Override
+	public String toString() {
+		return "FeedTag [tag=" + tag + ", feedId=" + feedId + "]";
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.bptn.feedapp.jpa;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/*
+ * An edge of the follow graph. Written and read through FollowDao, the entity
+ * only describes the table.
+ */
+@Entity
+@IdClass(Follow.Key.class)
+@Table(name = "\"Follow\"")
+public class Follow implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private Integer followerId;
+		private Integer followeeId;
+
+		public Key() {
+
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key k && Objects.equals(this.followerId, k.followerId)
+					&& Objects.equals(this.followeeId, k.followeeId);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.followerId, this.followeeId);
+		}
+	}
+
+	@Id
+	@Column(name = "\"followerId\"")
+	private Integer followerId;
+
+	@Id
+	@Column(name = "\"followeeId\"")
+	private Integer followeeId;
+
+	@Column(name = "\"createdOn\"", nullable = false)
+	private Timestamp createdOn;
+
+	public Follow() {
+
+	}
+
+	public Integer getFollowerId() {
+		return followerId;
+	}
+
+	public void setFollowerId(Integer followerId) {
+		this.followerId = followerId;
+	}
+
+	public Integer getFolloweeId() {
+		return followeeId;
+	}
+
+	public void setFolloweeId(Integer followeeId) {
+		this.followeeId = followeeId;
+	}
+
+	public Timestamp getCreatedOn() {
+		return createdOn;
+	}
+
+	public void setCreatedOn(Timestamp createdOn) {
+		this.createdOn = createdOn;
+	}
+
+	@Override
+	public String toString() {
+		return "Follow [followerId=" + followerId + ", followeeId=" + followeeId + ", createdOn=" + createdOn + "]";
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.bptn.feedapp.jpa;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/*
+ * A user mentioned in a feed. Written and read through TagDao, the entity only
+ * describes the table.
+ */
+@Entity
+@IdClass(Mention.Key.class)
+@Table(name = "\"Mention\"")
+public class Mention implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private Integer userId;
+		private Integer feedId;
+
+		public Key() {
+
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key k && Objects.equals(this.userId, k.userId) && Objects.equals(this.feedId, k.feedId);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.userId, this.feedId);
+		}
+	}
+
+	@Id
+	@Column(name = "\"userId\"")
+	private Integer userId;
+
+	@Id
+	@Column(name = "\"feedId\"")
+	private Integer feedId;
+
+	@Column(name = "\"authorId\"", nullable = false)
+	private Integer authorId;
+
+	@Column(name = "\"createdOn\"", nullable = false)
+	private Timestamp createdOn;
+
+	public Mention() {
+
+	}
+
+	public Integer getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Integer userId) {
+		this.userId = userId;
+	}
+
+	public Integer getFeedId() {
+		return feedId;
+	}
+
+	public void setFeedId(Integer feedId) {
+		this.feedId = feedId;
+	}
+
+	public Integer getAuthorId() {
+		return authorId;
+	}
+
+	public void setAuthorId(Integer authorId) {
+		this.authorId = authorId;
+	}
+
+	public Timestamp getCreatedOn() {
+		return createdOn;
+	}
+
+	public void setCreatedOn(Timestamp createdOn) {
+		this.createdOn = createdOn;
+	}
+
+	@Override
+	public String toString() {
+		return "Mention [userId=" + userId + ", feedId=" + feedId + ", authorId=" + authorId + ", createdOn="
+				+ createdOn + "]";
+	}
+
+}
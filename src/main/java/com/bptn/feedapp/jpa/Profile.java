@@ -2,10 +2,15 @@ package com.bptn.feedapp.jpa;
 
 import java.io.Serializable;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.bptn.feedapp.jdbc.SequenceIdAllocator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonProperty.Access;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -13,16 +18,20 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "profile")
 @Table(name = "\"Profile\"")
 public class Profile implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "profileSequence")
+	@SequenceGenerator(name = "profileSequence", sequenceName = SequenceIdAllocator.PROFILE_SEQUENCE, allocationSize = SequenceIdAllocator.ALLOCATION_SIZE)
 	@Column(name="\"profileId\"")
 	@JsonProperty(access = Access.WRITE_ONLY)
 	private Integer profileId;
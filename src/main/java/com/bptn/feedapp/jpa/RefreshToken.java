@@ -0,0 +1,123 @@
+package com.bptn.feedapp.jpa;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+import com.bptn.feedapp.jdbc.SequenceIdAllocator;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/*
+ * A refresh token, stored as its HMAC only. Every refresh replaces the token
+ * with a new one of the same family, the used token is kept until it expires
+ * so a replayed one can be recognized.
+ */
+@Entity
+@Table(name = "\"RefreshToken\"", uniqueConstraints = @UniqueConstraint(name = "\"RefreshToken_tokenDigest_key\"", columnNames = "\"tokenDigest\""), indexes = {
+		@Index(name = "\"RefreshToken_familyId_idx\"", columnList = "\"familyId\""),
+		@Index(name = "\"RefreshToken_userId_idx\"", columnList = "\"userId\""),
+		@Index(name = "\"RefreshToken_expiresOn_idx\"", columnList = "\"expiresOn\"") })
+public class RefreshToken implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refreshTokenSequence")
+	@SequenceGenerator(name = "refreshTokenSequence", sequenceName = SequenceIdAllocator.REFRESH_TOKEN_SEQUENCE, allocationSize = SequenceIdAllocator.ALLOCATION_SIZE)
+	@Column(name = "\"refreshTokenId\"")
+	private Integer refreshTokenId;
+
+	@Column(name = "\"userId\"")
+	private Integer userId;
+
+	/* The refreshTokenId of the token issued at login, shared by all its successors */
+	@Column(name = "\"familyId\"")
+	private Integer familyId;
+
+	@Column(name = "\"tokenDigest\"")
+	private String tokenDigest;
+
+	@Column(name = "\"createdOn\"")
+	private Timestamp createdOn;
+
+	@Column(name = "\"expiresOn\"")
+	private Timestamp expiresOn;
+
+	@Column(name = "\"usedOn\"")
+	private Timestamp usedOn;
+
+	public RefreshToken() {
+
+	}
+
+	public Integer getRefreshTokenId() {
+		return refreshTokenId;
+	}
+
+	public void setRefreshTokenId(Integer refreshTokenId) {
+		this.refreshTokenId = refreshTokenId;
+	}
+
+	public Integer getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Integer userId) {
+		this.userId = userId;
+	}
+
+	public Integer getFamilyId() {
+		return familyId;
+	}
+
+	public void setFamilyId(Integer familyId) {
+		this.familyId = familyId;
+	}
+
+	public String getTokenDigest() {
+		return tokenDigest;
+	}
+
+	public void setTokenDigest(String tokenDigest) {
+		this.tokenDigest = tokenDigest;
+	}
+
+	public Timestamp getCreatedOn() {
+		return createdOn;
+	}
+
+	public void setCreatedOn(Timestamp createdOn) {
+		this.createdOn = createdOn;
+	}
+
+	public Timestamp getExpiresOn() {
+		return expiresOn;
+	}
+
+	public void setExpiresOn(Timestamp expiresOn) {
+		this.expiresOn = expiresOn;
+	}
+
+	public Timestamp getUsedOn() {
+		return usedOn;
+	}
+
+	public void setUsedOn(Timestamp usedOn) {
+		this.usedOn = usedOn;
+	}
+
+	@Override
+	public String toString() {
+		return "RefreshToken [refreshTokenId=" + refreshTokenId + ", userId=" + userId + ", familyId=" + familyId
+				+ ", createdOn=" + createdOn + ", expiresOn=" + expiresOn + ", usedOn=" + usedOn + "]";
+	}
+
+}
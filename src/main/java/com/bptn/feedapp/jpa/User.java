@@ -4,10 +4,16 @@ import java.io.Serializable;
 import java.sql.Timestamp;
 import java.util.List;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.bptn.feedapp.jdbc.SequenceIdAllocator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -21,15 +27,25 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 
 @Entity
-@Table(name = "\"User\"")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@Table(name = "\"User\"", uniqueConstraints = {
+		@UniqueConstraint(name = User.USERNAME_KEY, columnNames = "username"),
+		@UniqueConstraint(name = User.EMAIL_ID_KEY, columnNames = "\"emailId\"") })
 public class User implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
+	/* Unique indexes, the insert is the authority on taken usernames and emails */
+	public static final String USERNAME_KEY = "User_username_key";
+	public static final String EMAIL_ID_KEY = "User_emailId_key";
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "userSequence")
+	@SequenceGenerator(name = "userSequence", sequenceName = SequenceIdAllocator.USER_SEQUENCE, allocationSize = SequenceIdAllocator.ALLOCATION_SIZE)
 	@Column(name = "\"userId\"")
 	private Integer userId;
 
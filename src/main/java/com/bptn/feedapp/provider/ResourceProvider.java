@@ -44,6 +44,9 @@ public class ResourceProvider {
 	@Value("${client.email.reset.expiration}")
 	private long clientResetExpiration;
 
+	@Value("${feed.preview.size}")
+	private int feedPreviewSize;
+
 	public String getJwtSecret() {
 		return jwtSecret;
 	}
@@ -87,6 +90,10 @@ public class ResourceProvider {
 	public long getClientResetExpiration() {
 		return clientResetExpiration;
 	}
+
+	public int getFeedPreviewSize() {
+		return feedPreviewSize;
+	}
 	
 	
 
@@ -0,0 +1,13 @@
+package com.bptn.feedapp.repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.bptn.feedapp.jpa.DigestCheckpoint;
+
+public interface DigestCheckpointRepository extends JpaRepository<DigestCheckpoint, Integer> {
+
+	Optional<DigestCheckpoint> findByPeriodStartAndPartitionStart(Timestamp periodStart, int partitionStart);
+}
@@ -0,0 +1,18 @@
+package com.bptn.feedapp.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.bptn.feedapp.jpa.EmailOutbox;
+import com.bptn.feedapp.jpa.EmailOutbox.Status;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Integer> {
+
+	List<EmailOutbox> findByStatusAndNextAttemptOnLessThanEqualOrderByEmailOutboxId(Status status, Timestamp now,
+			Pageable pageable);
+
+	boolean existsByDedupKeyAndStatus(String dedupKey, Status status);
+}
@@ -1,9 +1,38 @@
 package com.bptn.feedapp.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.bptn.feedapp.jpa.FeedMetaData;
 
 public interface FeedMetaDataRepository extends JpaRepository<FeedMetaData, Integer> {
-//	The body for the interface is empty since no additional methods are defined.
+
+	/* Served by the (feedId, actionUserId, isLike) index */
+	boolean existsByFeedFeedIdAndUserUserIdAndIsLikeTrue(Integer feedId, Integer userId);
+
+	@Query("select m.user.userId from FeedMetaData m where m.feed.feedId = :feedId and m.isLike = true")
+	List<Integer> findLikeUserIds(@Param("feedId") Integer feedId);
+
+	/* Keyset pagination over the likes or the comments of one feed, newest first */
+	@Query("select m from FeedMetaData m join fetch m.user u left join fetch u.profile "
+			+ "where m.feed.feedId = :feedId and m.isLike = :isLike and m.FeetMetaDataId < :before "
+			+ "order by m.FeetMetaDataId desc")
+	List<FeedMetaData> findByFeedIdAndIsLikeBefore(@Param("feedId") Integer feedId, @Param("isLike") Boolean isLike,
+			@Param("before") Integer before, Pageable pageable);
+
+	/* Ids of the newest comments of every feed, at most size per feed */
+	@Query(value = "SELECT r.\"feedMetaDataId\" FROM (SELECT m.\"feedMetaDataId\", "
+			+ "ROW_NUMBER() OVER (PARTITION BY m.\"feedId\" ORDER BY m.\"feedMetaDataId\" DESC) AS rn "
+			+ "FROM \"FeedMetaData\" m WHERE m.\"feedId\" IN (:feedIds) AND m.\"isLike\" = false) r "
+			+ "WHERE r.rn <= :size", nativeQuery = true)
+	List<Integer> findLatestCommentIds(@Param("feedIds") Collection<Integer> feedIds, @Param("size") int size);
+
+	@Query("select m from FeedMetaData m join fetch m.user u left join fetch u.profile "
+			+ "where m.FeetMetaDataId in :ids order by m.FeetMetaDataId desc")
+	List<FeedMetaData> findWithUserByIdIn(@Param("ids") Collection<Integer> ids);
 }
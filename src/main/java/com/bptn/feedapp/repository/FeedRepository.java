@@ -1,7 +1,12 @@
 package com.bptn.feedapp.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +14,32 @@ import com.bptn.feedapp.jpa.Feed;
 import com.bptn.feedapp.jpa.User;
 
 public interface FeedRepository extends JpaRepository<Feed, Integer>, PagingAndSortingRepository<Feed, Integer> {
-	Page<Feed> findByUser(User user, Pageable pageable);
-	Page<Feed> findByUserNot(User user, Pageable pageable);
+
+	/*
+	 * Fetch plan for timeline pages: the author and the author's profile are
+	 * joined into the page query, Feed.feedMetaData is then batch loaded for the
+	 * whole page with one IN query.
+	 */
+	String TIMELINE_SELECT = "select f from Feed f join fetch f.user u left join fetch u.profile ";
+
+	@Query(value = TIMELINE_SELECT + "where f.user = :user",
+			countQuery = "select count(f) from Feed f where f.user = :user")
+	Page<Feed> findByUser(@Param("user") User user, Pageable pageable);
+
+	@Query(value = TIMELINE_SELECT + "where f.user <> :user",
+			countQuery = "select count(f) from Feed f where f.user <> :user")
+	Page<Feed> findByUserNot(@Param("user") User user, Pageable pageable);
+
+	/* Keyset pagination, returns the feeds older than the given feedId without a count query */
+	@Query(TIMELINE_SELECT + "where f.user = :user and f.feedId < :feedId order by f.feedId desc")
+	List<Feed> findByUserAndFeedIdLessThanOrderByFeedIdDesc(@Param("user") User user,
+			@Param("feedId") Integer feedId, Pageable pageable);
+
+	@Query(TIMELINE_SELECT + "where f.user <> :user and f.feedId < :feedId order by f.feedId desc")
+	List<Feed> findByUserNotAndFeedIdLessThanOrderByFeedIdDesc(@Param("user") User user,
+			@Param("feedId") Integer feedId, Pageable pageable);
+
+	/* Hydrates a page of feedIds, e.g. from a home timeline */
+	@Query(TIMELINE_SELECT + "where f.feedId in :feedIds order by f.feedId desc")
+	List<Feed> findByFeedIdInOrderByFeedIdDesc(@Param("feedIds") Collection<Integer> feedIds);
 }
@@ -0,0 +1,33 @@
+package com.bptn.feedapp.repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.bptn.feedapp.jpa.RefreshToken;
+
+import jakarta.persistence.LockModeType;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Integer> {
+
+	/* Locked, so two refreshes with the same token cannot both rotate it */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	Optional<RefreshToken> findByTokenDigest(String tokenDigest);
+
+	@Modifying
+	@Query("delete from RefreshToken t where t.familyId = :familyId")
+	int deleteByFamilyId(@Param("familyId") Integer familyId);
+
+	@Modifying
+	@Query("delete from RefreshToken t where t.userId = :userId")
+	int deleteByUserId(@Param("userId") Integer userId);
+
+	@Modifying
+	@Query("delete from RefreshToken t where t.expiresOn < :now")
+	int deleteExpired(@Param("now") Timestamp now);
+}
@@ -1,13 +1,44 @@
 package com.bptn.feedapp.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.bptn.feedapp.jpa.User;
 
+import jakarta.persistence.QueryHint;
+
 public interface UserRepository extends JpaRepository<User, Integer> {
+
+	/*
+	 * The profile is joined in, otherwise the EAGER one-to-one costs a second
+	 * SELECT. Results are kept in the query cache, so the lookup done by every
+	 * authenticated request is answered from memory.
+	 */
+	@EntityGraph(attributePaths = "profile")
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	Optional<User> findByUsername(String username);
 
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	Optional<User> findByEmailId(String email);
+
+	/* A page of users after the cursor, with their profiles joined in */
+	@EntityGraph(attributePaths = "profile")
+	List<User> findByUserIdGreaterThanOrderByUserIdAsc(Integer userId, Pageable pageable);
+
+	boolean existsByUsername(String username);
+
+	boolean existsByEmailId(String emailId);
+
+	/* Which of the two values are taken, "username" and/or "emailId", in one query */
+	@Query("select case when u.username = :username then 'username' else 'emailId' end from User u "
+			+ "where u.username = :username or u.emailId = :emailId")
+	List<String> findTaken(@Param("username") String username, @Param("emailId") String emailId);
 }
@@ -0,0 +1,126 @@
+package com.bptn.feedapp.security;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.bptn.feedapp.domain.HashStatistics;
+import com.bptn.feedapp.exception.domain.PasswordHashingBusyException;
+
+/*
+ * BCrypt on a pool with one thread per core and a short queue, instead of on
+ * the request threads. A login burst can then keep the cores busy, but not
+ * take every request thread: once the queue is full further hashes are
+ * rejected at once and the client gets a 429.
+ *
+ * upgradeEncoding reports hashes made with a lower cost than the configured
+ * one, Spring Security then rehashes the password after a successful login.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private static final String BUSY = "Too many logins in progress. Please try again";
+
+	private final BCryptPasswordEncoder delegate;
+	private final ThreadPoolTaskExecutor executor;
+	private final int strength;
+
+	private final LongAdder hashCount = new LongAdder();
+	private final LongAdder hashNanos = new LongAdder();
+	private final LongAdder waitNanos = new LongAdder();
+	private final LongAccumulator maxHashNanos = new LongAccumulator(Long::max, 0);
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder upgrades = new LongAdder();
+
+	public BoundedPasswordEncoder(int strength, ThreadPoolTaskExecutor executor) {
+		this.delegate = new BCryptPasswordEncoder(strength);
+		this.executor = executor;
+		this.strength = strength;
+	}
+
+	private <T> T run(Supplier<T> task) {
+		long submitted = System.nanoTime();
+		Future<T> future;
+
+		try {
+			future = this.executor.submit(() -> {
+				long start = System.nanoTime();
+				try {
+					return task.get();
+				} finally {
+					long elapsed = System.nanoTime() - start;
+
+					this.hashCount.increment();
+					this.hashNanos.add(elapsed);
+					this.maxHashNanos.accumulate(elapsed);
+					this.waitNanos.add(start - submitted);
+				}
+			});
+		} catch (TaskRejectedException ex) {
+			this.rejected.increment();
+			logger.debug("Hash Executor Saturated, rejecting");
+			throw new PasswordHashingBusyException(BUSY);
+		}
+
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while hashing", ex);
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(ex.getCause());
+		}
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return this.run(() -> this.delegate.encode(rawPassword));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return this.run(() -> this.delegate.matches(rawPassword, encodedPassword));
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		boolean upgrade = this.delegate.upgradeEncoding(encodedPassword);
+
+		if (upgrade) {
+			this.upgrades.increment();
+		}
+
+		return upgrade;
+	}
+
+	/* The plain encoder, for callers that already hash on a bounded pool of their own */
+	public PasswordEncoder getDelegate() {
+		return this.delegate;
+	}
+
+	public HashStatistics getStatistics() {
+		ThreadPoolExecutor pool = this.executor.getThreadPoolExecutor();
+
+		long count = this.hashCount.sum();
+		double mean = count == 0 ? 0 : this.hashNanos.sum() / 1e6 / count;
+		double meanWait = count == 0 ? 0 : this.waitNanos.sum() / 1e6 / count;
+
+		return new HashStatistics(this.strength, pool.getPoolSize(), pool.getActiveCount(), pool.getQueue().size(),
+				this.executor.getQueueCapacity(), count, this.rejected.sum(), this.upgrades.sum(), mean,
+				this.maxHashNanos.get() / 1e6, meanWait);
+	}
+}
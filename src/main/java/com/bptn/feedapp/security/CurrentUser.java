@@ -0,0 +1,39 @@
+package com.bptn.feedapp.security;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+/*
+ * The signed in user as read from the JWT. The userId is null for tokens issued
+ * before it was added as a claim, those are resolved by username instead.
+ */
+public class CurrentUser implements Principal, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Integer userId;
+	private final String username;
+
+	public CurrentUser(Integer userId, String username) {
+		this.userId = userId;
+		this.username = username;
+	}
+
+	public Integer getUserId() {
+		return userId;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	@Override
+	public String getName() {
+		return username;
+	}
+
+	@Override
+	public String toString() {
+		return "CurrentUser [userId=" + userId + ", username=" + username + "]";
+	}
+}
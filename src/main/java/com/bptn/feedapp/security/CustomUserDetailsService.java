@@ -1,6 +1,7 @@
 package com.bptn.feedapp.security;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
@@ -13,7 +14,7 @@ import com.bptn.feedapp.jpa.User;
 import java.util.Optional;
 
 @Service("UserDetailsService")
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 	
 	@Autowired
 	UserRepository userRepository;
@@ -30,4 +31,19 @@ public class CustomUserDetailsService implements UserDetailsService {
 		return new CustomUserDetails(opt.get());
 	}
 
+	/*
+	 * Called after a successful login when the stored hash was made with a lower
+	 * cost than the configured one, with the password hashed again.
+	 */
+	@Override
+	public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+
+		User user = this.userRepository.findByUsername(userDetails.getUsername())
+				.orElseThrow(() -> new UsernameNotFoundException("Username not found: " + userDetails.getUsername()));
+
+		user.setPassword(newPassword);
+
+		return new CustomUserDetails(this.userRepository.save(user));
+	}
+
 }
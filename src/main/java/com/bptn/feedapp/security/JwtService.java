@@ -5,44 +5,156 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.bptn.feedapp.domain.CacheStatistics;
+import com.bptn.feedapp.domain.JwtStatistics;
 import com.bptn.feedapp.provider.ResourceProvider;
 
 import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
-import com.auth0.jwt.JWT;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtService {
 	final Logger logger = LoggerFactory.getLogger(this.getClass());
 	
-	
+	/* Claim carrying the userId, so requests don't have to look it up by username */
+	public static final String USER_ID_CLAIM = "uid";
+
 	@Autowired
 	ResourceProvider provider;
+
+	@Value("${jwt.cache.max-size}")
+	private long cacheMaxSize;
+
+	/* Both are immutable and thread safe, built once from the secret */
+	private Algorithm algorithm;
+	private JWTVerifier verifier;
+
+	record Verified(CurrentUser currentUser, long expiresAt) {
+	}
+
+	/*
+	 * Tokens that already passed verification, keyed by their SHA-256 digest.
+	 * Every entry expires at the token's own exp, so a cached token is never
+	 * accepted after it would have failed verification.
+	 */
+	private Cache<ByteBuffer, Verified> verified;
+
+	private final LongAdder verifications = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final long startedAt = System.currentTimeMillis();
+
+	@PostConstruct
+	public void init() {
+		this.algorithm = HMAC512(this.provider.getJwtSecret());
+		this.verifier = JWT.require(this.algorithm).withIssuer(this.provider.getJwtIssuer()).build();
+
+		this.verified = Caffeine.newBuilder()
+				.maximumSize(this.cacheMaxSize)
+				.expireAfter(new Expiry<ByteBuffer, Verified>() {
+					@Override
+					public long expireAfterCreate(ByteBuffer key, Verified value, long currentTime) {
+						return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAt() - System.currentTimeMillis()));
+					}
+
+					@Override
+					public long expireAfterUpdate(ByteBuffer key, Verified value, long currentTime, long currentDuration) {
+						return this.expireAfterCreate(key, value, currentTime);
+					}
+
+					@Override
+					public long expireAfterRead(ByteBuffer key, Verified value, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+				})
+				.recordStats()
+				.build();
+	}
 	
 	public String generateJwtToken(String username, long expiration) {
+		return this.generateJwtToken(username, null, expiration);
+	}
+
+	public String generateJwtToken(String username, Integer userId, long expiration) {
 
 	    return JWT.create()
 	    			 .withIssuer(this.provider.getJwtIssuer())
 	    			 .withAudience(this.provider.getJwtAudience())
 	                 .withIssuedAt(new Date())
 	                 .withSubject(username)
+	                 .withClaim(USER_ID_CLAIM, userId)
 	                 .withExpiresAt(new Date(System.currentTimeMillis() + expiration))
-	                 .sign(HMAC512(this.provider.getJwtSecret()));
+	                 .sign(this.algorithm);
 	}
 	
 	public DecodedJWT verifyJwtToken(String token) {
-	    	
-	    	return JWT.require(HMAC512(this.provider.getJwtSecret()))
-	    			.withIssuer(this.provider.getJwtIssuer())
-	    			.build().verify(token); 	
+
+		this.verifications.increment();
+
+		try {
+			return this.verifier.verify(token);
+		} catch (RuntimeException ex) {
+			this.failures.increment();
+			throw ex;
+		}
 	}
-	
+
+	/* Verified tokens are served from the cache, only new ones pay for the HMAC */
+	public CurrentUser getCurrentUser(String token) {
+
+		ByteBuffer key = digest(token);
+
+		Verified hit = this.verified.getIfPresent(key);
+
+		if (hit != null && hit.expiresAt() > System.currentTimeMillis()) {
+			return hit.currentUser();
+		}
+
+		DecodedJWT jwt = this.verifyJwtToken(token);
+
+		CurrentUser currentUser = new CurrentUser(jwt.getClaim(USER_ID_CLAIM).asInt(), jwt.getSubject());
+
+		if (jwt.getExpiresAt() != null) {
+			this.verified.put(key, new Verified(currentUser, jwt.getExpiresAt().getTime()));
+		}
+
+		return currentUser;
+	}
+
 	public String getSubject(String token) {
-	    	
-	    	return JWT.require(HMAC512(this.provider.getJwtSecret()))
-			         .withIssuer(this.provider.getJwtIssuer())
-			         .build().verify(token).getSubject();
+		return this.getCurrentUser(token).getUsername();
+	}
+
+	public JwtStatistics getStatistics() {
+		double seconds = Math.max(1, System.currentTimeMillis() - this.startedAt) / 1000.0;
+
+		return new JwtStatistics(this.verifications.sum(), this.failures.sum(), this.verifications.sum() / seconds,
+				CacheStatistics.of("verifiedTokens", this.verified.estimatedSize(), this.verified.stats()));
+	}
+
+	private static ByteBuffer digest(String token) {
+		try {
+			return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
 	}
 }
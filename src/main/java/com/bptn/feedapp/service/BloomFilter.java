@@ -0,0 +1,77 @@
+package com.bptn.feedapp.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Set membership with false positives but no false negatives. Sized for an
+ * expected number of values and false positive rate, values are only ever
+ * added. Safe for concurrent use, bits are set with compare-and-set.
+ */
+public class BloomFilter {
+
+	private static final double LN2 = Math.log(2);
+
+	private final AtomicLongArray bits;
+	private final long size;
+	private final int hashes;
+
+	public BloomFilter(long expectedInsertions, double fpp) {
+		long n = Math.max(1, expectedInsertions);
+
+		/* m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions */
+		long m = (long) Math.ceil(-n * Math.log(fpp) / (LN2 * LN2));
+		int words = (int) Math.min((m + 63) >>> 6, Integer.MAX_VALUE - 8);
+
+		this.bits = new AtomicLongArray(Math.max(1, words));
+		this.size = this.bits.length() * 64L;
+		this.hashes = Math.max(1, (int) Math.round((double) m / n * LN2));
+	}
+
+	/* FNV-1a over the chars, spread with the murmur3 finalizer */
+	private static long hash(String value) {
+		long h = 0xcbf29ce484222325L;
+
+		for (int i = 0; i < value.length(); i++) {
+			h = (h ^ value.charAt(i)) * 0x100000001b3L;
+		}
+
+		return mix(h);
+	}
+
+	private static long mix(long h) {
+		h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+		h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return h ^ (h >>> 33);
+	}
+
+	public void put(String value) {
+		long h1 = hash(value);
+		long h2 = mix(h1) | 1;
+
+		/* Double hashing, the k indexes are h1 + i * h2 */
+		for (int i = 0; i < this.hashes; i++) {
+			long index = Long.remainderUnsigned(h1 + i * h2, this.size);
+			long mask = 1L << index;
+			int word = (int) (index >>> 6);
+
+			if ((this.bits.get(word) & mask) == 0) {
+				this.bits.getAndAccumulate(word, mask, (a, b) -> a | b);
+			}
+		}
+	}
+
+	public boolean mightContain(String value) {
+		long h1 = hash(value);
+		long h2 = mix(h1) | 1;
+
+		for (int i = 0; i < this.hashes; i++) {
+			long index = Long.remainderUnsigned(h1 + i * h2, this.size);
+
+			if ((this.bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,126 @@
+package com.bptn.feedapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import org.unbescape.html.HtmlEscape;
+
+import com.bptn.feedapp.jpa.User;
+
+/*
+ * An email template rendered once by Thymeleaf with markers in place of the
+ * per-user values, then split into literal segments and slots. Rendering only
+ * concatenates the segments with the escaped values, the same HTML escaping
+ * th:text applies, into a buffer kept per thread.
+ */
+public final class CompiledTemplate {
+
+	static final int FIRST_NAME = 0;
+	static final int LAST_NAME = 1;
+	static final int USERNAME = 2;
+	static final int TOKEN = 3;
+
+	/* Slots named by the caller follow the fixed ones */
+	static final int EXTRA = 4;
+
+	private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+	private final String[] literals;
+	private final int[] slots;
+	private final int slotCount;
+	private final int literalLength;
+
+	private CompiledTemplate(String[] literals, int[] slots, int slotCount) {
+		this.literals = literals;
+		this.slots = slots;
+		this.slotCount = slotCount;
+
+		int length = 0;
+		for (String literal : literals) {
+			length += literal.length();
+		}
+		this.literalLength = length;
+	}
+
+	/* The client url and param are fixed per template, only the user and token vary */
+	public static CompiledTemplate compile(ITemplateEngine templateEngine, String templateName, String client,
+			String param) {
+		return compile(templateEngine, templateName, Map.of("client", client, "param", param));
+	}
+
+	/*
+	 * Fixed variables are rendered in as they are. Every extra slot name becomes a
+	 * template variable whose value is passed to render in the same order.
+	 */
+	public static CompiledTemplate compile(ITemplateEngine templateEngine, String templateName,
+			Map<String, Object> variables, String... extraSlots) {
+
+		String nonce = UUID.randomUUID().toString().replace("-", "");
+
+		User user = new User();
+		user.setFirstName(marker(nonce, FIRST_NAME));
+		user.setLastName(marker(nonce, LAST_NAME));
+		user.setUsername(marker(nonce, USERNAME));
+
+		Context context = new Context();
+		context.setVariables(variables);
+		context.setVariable("user", user);
+		context.setVariable("token", marker(nonce, TOKEN));
+
+		for (int i = 0; i < extraSlots.length; i++) {
+			context.setVariable(extraSlots[i], marker(nonce, EXTRA + i));
+		}
+
+		String html = templateEngine.process(templateName, context);
+
+		List<String> literals = new ArrayList<>();
+		List<Integer> slots = new ArrayList<>();
+
+		Matcher matcher = Pattern.compile(Pattern.quote("%%" + nonce + ":") + "(\\d+)%%").matcher(html);
+		int start = 0;
+
+		while (matcher.find()) {
+			literals.add(html.substring(start, matcher.start()));
+			slots.add(Integer.parseInt(matcher.group(1)));
+			start = matcher.end();
+		}
+		literals.add(html.substring(start));
+
+		return new CompiledTemplate(literals.toArray(String[]::new), slots.stream().mapToInt(Integer::intValue).toArray(),
+				EXTRA + extraSlots.length);
+	}
+
+	private static String marker(String nonce, int slot) {
+		return "%%" + nonce + ":" + slot + "%%";
+	}
+
+	public String render(User user, String token, Object... extras) {
+
+		String[] values = new String[this.slotCount];
+		values[FIRST_NAME] = HtmlEscape.escapeHtml4Xml(String.valueOf(user.getFirstName()));
+		values[LAST_NAME] = HtmlEscape.escapeHtml4Xml(String.valueOf(user.getLastName()));
+		values[USERNAME] = HtmlEscape.escapeHtml4Xml(String.valueOf(user.getUsername()));
+		values[TOKEN] = HtmlEscape.escapeHtml4Xml(String.valueOf(token));
+
+		for (int i = 0; i < extras.length && EXTRA + i < this.slotCount; i++) {
+			values[EXTRA + i] = HtmlEscape.escapeHtml4Xml(String.valueOf(extras[i]));
+		}
+
+		StringBuilder buffer = BUFFER.get();
+		buffer.setLength(0);
+		buffer.ensureCapacity(this.literalLength + 512);
+
+		for (int i = 0; i < this.slots.length; i++) {
+			buffer.append(this.literals[i]).append(values[this.slots[i]]);
+		}
+		buffer.append(this.literals[this.slots.length]);
+
+		return buffer.toString();
+	}
+}
@@ -0,0 +1,75 @@
+package com.bptn.feedapp.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Reads RFC 4180 records one at a time: comma separated, fields optionally
+ * quoted, quotes inside quoted fields doubled. Quoted fields may span lines.
+ */
+public class CsvReader {
+
+	private final Reader reader;
+	private int peeked = -2;
+
+	public CsvReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	private int read() throws IOException {
+		if (this.peeked != -2) {
+			int c = this.peeked;
+			this.peeked = -2;
+			return c;
+		}
+		return this.reader.read();
+	}
+
+	private int peek() throws IOException {
+		if (this.peeked == -2) {
+			this.peeked = this.reader.read();
+		}
+		return this.peeked;
+	}
+
+	/* The fields of the next record, or null at the end of the input */
+	public List<String> next() throws IOException {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+
+		int c = this.read();
+
+		if (c == -1) {
+			return null;
+		}
+
+		for (;; c = this.read()) {
+			if (quoted) {
+				if (c == -1) {
+					throw new IOException("Unterminated quoted field");
+				} else if (c == '"' && this.peek() == '"') {
+					field.append((char) this.read());
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append((char) c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if (c == '\r' && this.peek() == '\n') {
+				continue;
+			} else if (c == '\n' || c == -1) {
+				fields.add(field.toString());
+				return fields;
+			} else {
+				field.append((char) c);
+			}
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.bptn.feedapp.service;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.exception.domain.UserNotFoundException;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.UserRepository;
+import com.bptn.feedapp.security.CurrentUser;
+
+/*
+ * Resolves the signed in user from the CurrentUser principal set by the JWT
+ * filter. Writes only need the userId and take a reference, so no SELECT is
+ * issued for them. Full entities come from the second-level cache.
+ */
+@Service
+public class CurrentUserService {
+
+	@Autowired
+	UserRepository userRepository;
+
+	public CurrentUser get() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+		if (authentication.getPrincipal() instanceof CurrentUser currentUser) {
+			return currentUser;
+		}
+
+		return new CurrentUser(null, authentication.getName());
+	}
+
+	public String getUsername() {
+		return this.get().getUsername();
+	}
+
+	public int getUserId() {
+		CurrentUser currentUser = this.get();
+
+		return Optional.ofNullable(currentUser.getUserId())
+				.orElseGet(() -> this.findByUsername(currentUser.getUsername()).getUserId());
+	}
+
+	/* A proxy carrying only the id, enough to set a relation */
+	public User getReference() {
+		return this.userRepository.getReferenceById(this.getUserId());
+	}
+
+	public User getUser() {
+		CurrentUser currentUser = this.get();
+
+		if (currentUser.getUserId() == null) {
+			return this.findByUsername(currentUser.getUsername());
+		}
+
+		return this.userRepository.findById(currentUser.getUserId()).orElseThrow(() -> new UserNotFoundException(
+				String.format("Username doesn't exist, %s", currentUser.getUsername())));
+	}
+
+	private User findByUsername(String username) {
+		return this.userRepository.findByUsername(username)
+				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+	}
+}
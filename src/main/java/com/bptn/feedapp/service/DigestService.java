@@ -0,0 +1,214 @@
+package com.bptn.feedapp.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bptn.feedapp.jdbc.DigestDao;
+import com.bptn.feedapp.jdbc.DigestDao.Engagement;
+import com.bptn.feedapp.jpa.DigestCheckpoint;
+import com.bptn.feedapp.repository.DigestCheckpointRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Weekly activity digest. The userId space is cut into fixed partitions that
+ * run in parallel on the job's own threads, away from the request pool. Every
+ * partition streams the engagement of its users from one grouped query and,
+ * every batch of users, renders their digests, hands them to the mail
+ * transport and records a checkpoint in its own transaction, so a run that is
+ * stopped resumes where it left off.
+ */
+@Service
+public class DigestService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	DigestDao digestDao;
+
+	@Autowired
+	DigestCheckpointRepository digestCheckpointRepository;
+
+	@Autowired
+	EmailService emailService;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Value("${email.digest.enabled}")
+	private boolean enabled;
+
+	@Value("${email.digest.threads}")
+	private int threads;
+
+	@Value("${email.digest.partition-size}")
+	private int partitionSize;
+
+	@Value("${email.digest.batch-size}")
+	private int batchSize;
+
+	@Value("${email.digest.send-timeout}")
+	private long sendTimeout;
+
+	/* Checkpoints commit while the partition's query is still streaming */
+	private TransactionTemplate checkpointTransaction;
+
+	@PostConstruct
+	public void init() {
+		this.checkpointTransaction = new TransactionTemplate(this.transactionManager);
+		this.checkpointTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	@Scheduled(cron = "${email.digest.cron}")
+	public void scheduledRun() {
+
+		if (this.enabled) {
+			this.run(Instant.now().truncatedTo(ChronoUnit.DAYS));
+		}
+	}
+
+	/* Sends the digests of the 7 days before periodEnd, returns how many were sent */
+	public synchronized int run(Instant periodEnd) {
+
+		/* Whole seconds, the period start is matched against the stored checkpoints */
+		Instant end = periodEnd.truncatedTo(ChronoUnit.SECONDS);
+
+		Timestamp from = Timestamp.from(end.minus(7, ChronoUnit.DAYS));
+		Timestamp to = Timestamp.from(end);
+
+		int maxUserId = this.digestDao.maxUserId();
+
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(this.threads, r -> {
+			Thread thread = new Thread(r, "digest-" + threadCount.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		List<Future<Integer>> partitions = new ArrayList<>();
+
+		/* Partitions are multiples of the partition size, so a resumed run finds its checkpoints */
+		for (int start = 0; start < maxUserId; start += this.partitionSize) {
+			int partitionStart = start;
+			partitions.add(executor.submit(() -> this.runPartition(from, to, partitionStart)));
+		}
+
+		int sent = 0;
+
+		try {
+			for (Future<Integer> partition : partitions) {
+				try {
+					sent += partition.get();
+				} catch (ExecutionException ex) {
+					/* The partition keeps its checkpoint and is resumed by the next run */
+					this.logger.error("Error while Sending Digests, period: " + from, ex.getCause());
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+
+		this.logger.debug("Digests Sent, period: {} - {}, partitions: {}, sent: {}", from, to, partitions.size(), sent);
+
+		return sent;
+	}
+
+	private int runPartition(Timestamp from, Timestamp to, int partitionStart) {
+
+		DigestCheckpoint checkpoint = this.digestCheckpointRepository
+				.findByPeriodStartAndPartitionStart(from, partitionStart).orElseGet(() -> {
+					DigestCheckpoint c = new DigestCheckpoint();
+					c.setPeriodStart(from);
+					c.setPartitionStart(partitionStart);
+					c.setPartitionEnd(partitionStart + this.partitionSize);
+					c.setLastUserId(partitionStart);
+					return c;
+				});
+
+		if (checkpoint.getCompletedOn() != null) {
+			return 0;
+		}
+
+		DigestCheckpoint[] current = { checkpoint };
+		List<Engagement> batch = new ArrayList<>(this.batchSize);
+		int sentBefore = checkpoint.getSentCount();
+
+		this.digestDao.forEachEngagement(from, to, checkpoint.getLastUserId(), checkpoint.getPartitionEnd(),
+				this.batchSize, engagement -> {
+					batch.add(engagement);
+
+					if (batch.size() == this.batchSize) {
+						current[0] = this.sendBatch(batch, current[0]);
+						batch.clear();
+					}
+				});
+
+		if (!batch.isEmpty()) {
+			current[0] = this.sendBatch(batch, current[0]);
+		}
+
+		current[0].setCompletedOn(Timestamp.from(Instant.now()));
+		this.save(current[0]);
+
+		return current[0].getSentCount() - sentBefore;
+	}
+
+	/* Sends the digests of the batch and moves the checkpoint past its last user */
+	private DigestCheckpoint sendBatch(List<Engagement> batch, DigestCheckpoint checkpoint) {
+
+		List<CompletableFuture<Void>> results = batch.stream().map(this.emailService::sendDigestEmail).toList();
+
+		int accepted = this.await(results);
+
+		checkpoint.setLastUserId(batch.get(batch.size() - 1).user().getUserId());
+		checkpoint.setSentCount(checkpoint.getSentCount() + accepted);
+
+		return this.save(checkpoint);
+	}
+
+	private DigestCheckpoint save(DigestCheckpoint checkpoint) {
+		return this.checkpointTransaction.execute(status -> this.digestCheckpointRepository.save(checkpoint));
+	}
+
+	/* Digests are best effort, a failed one is logged and not retried */
+	private int await(List<CompletableFuture<Void>> results) {
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.sendTimeout);
+		int accepted = 0;
+
+		for (CompletableFuture<Void> result : results) {
+			try {
+				result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+				accepted++;
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (Exception ex) {
+				this.logger.debug("Digest not Sent, Reason: {}", ex.getMessage());
+			}
+		}
+
+		return accepted;
+	}
+}
@@ -0,0 +1,250 @@
+package com.bptn.feedapp.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import com.bptn.feedapp.jpa.EmailOutbox;
+import com.bptn.feedapp.jpa.EmailOutbox.Status;
+import com.bptn.feedapp.jpa.EmailOutbox.Type;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.EmailOutboxRepository;
+import com.bptn.feedapp.repository.UserRepository;
+
+/*
+ * Transactional outbox for emails. Callers write a row in the same transaction
+ * as the change that triggers the email, so an email is sent if and only if
+ * the change committed. A scheduled dispatcher sends due rows in batches,
+ * retries failures with exponential backoff and caps how many emails go to
+ * one recipient domain per minute.
+ *
+ * Assumes a single instance: due rows are read without being claimed, and the
+ * domain windows and the sends still in flight are only known in memory.
+ */
+@Service
+public class EmailOutboxService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	EmailOutboxRepository emailOutboxRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	EmailService emailService;
+
+	@Value("${email.outbox.batch-size}")
+	private int batchSize;
+
+	@Value("${email.outbox.send-timeout}")
+	private long sendTimeout;
+
+	@Value("${email.outbox.max-attempts}")
+	private int maxAttempts;
+
+	@Value("${email.outbox.backoff}")
+	private long backoff;
+
+	@Value("${email.outbox.max-backoff}")
+	private long maxBackoff;
+
+	@Value("${email.outbox.domain-limit}")
+	private int domainLimit;
+
+	/* Emails sent per recipient domain in the current one minute window */
+	static class Window {
+		long start;
+		int count;
+	}
+
+	private final Map<String, Window> windows = new HashMap<>();
+
+	/* Sends that outlived the timeout by emailOutboxId, settled once they complete instead of sent again */
+	private final Map<Integer, CompletableFuture<Void>> inFlight = new HashMap<>();
+
+	/*
+	 * Queue an email, a pending one with the same key makes it a no-op. Two
+	 * concurrent calls can both pass the check, the loser fails on the unique
+	 * index. Flushed here, pooled ids would otherwise defer the insert to the
+	 * commit. The failed insert leaves the transaction unusable, so it is rolled
+	 * back: in its own transaction that is the no-op, inside a caller's it would
+	 * take the caller down, which only queues emails for users it just created.
+	 */
+	@Transactional
+	public void enqueue(User user, Type type) {
+
+		String dedupKey = String.format("%s:%d", type, user.getUserId());
+
+		if (this.emailOutboxRepository.existsByDedupKeyAndStatus(dedupKey, Status.PENDING)) {
+			this.logger.debug("Email already Pending, {}", dedupKey);
+			return;
+		}
+
+		Timestamp now = Timestamp.from(Instant.now());
+
+		EmailOutbox email = new EmailOutbox();
+		email.setType(type);
+		email.setUserId(user.getUserId());
+		email.setEmailId(user.getEmailId());
+		email.setDedupKey(dedupKey);
+		email.setStatus(Status.PENDING);
+		email.setCreatedOn(now);
+		email.setNextAttemptOn(now);
+
+		try {
+			this.emailOutboxRepository.saveAndFlush(email);
+		} catch (DataIntegrityViolationException ex) {
+			this.logger.debug("Email already Pending, {}", dedupKey);
+			TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+		}
+	}
+
+	/* Queue one email per user just created, by userId, none can be pending yet */
+	@Transactional
+	public void enqueueNew(Map<Integer, String> emailIds, Type type) {
+
+		Timestamp now = Timestamp.from(Instant.now());
+
+		List<EmailOutbox> emails = emailIds.entrySet().stream().map(e -> {
+			EmailOutbox email = new EmailOutbox();
+			email.setType(type);
+			email.setUserId(e.getKey());
+			email.setEmailId(e.getValue());
+			email.setDedupKey(String.format("%s:%d", type, e.getKey()));
+			email.setStatus(Status.PENDING);
+			email.setCreatedOn(now);
+			email.setNextAttemptOn(now);
+			return email;
+		}).toList();
+
+		this.emailOutboxRepository.saveAll(emails);
+	}
+
+	@Scheduled(fixedDelayString = "${email.outbox.poll-interval}")
+	public synchronized void dispatch() {
+
+		long now = System.currentTimeMillis();
+
+		List<EmailOutbox> due = this.emailOutboxRepository.findByStatusAndNextAttemptOnLessThanEqualOrderByEmailOutboxId(
+				Status.PENDING, new Timestamp(now), PageRequest.of(0, this.batchSize));
+
+		if (due.isEmpty()) {
+			return;
+		}
+
+		Map<Integer, User> users = this.userRepository.findAllById(due.stream().map(EmailOutbox::getUserId).toList())
+				.stream().collect(Collectors.toMap(User::getUserId, Function.identity()));
+
+		Map<EmailOutbox, CompletableFuture<Void>> sending = new LinkedHashMap<>();
+
+		for (EmailOutbox email : due) {
+			CompletableFuture<Void> running = this.inFlight.get(email.getEmailOutboxId());
+
+			if (running != null) {
+				if (running.isDone()) {
+					this.inFlight.remove(email.getEmailOutboxId());
+					sending.put(email, running);
+				} else {
+					email.setNextAttemptOn(new Timestamp(now + this.sendTimeout));
+				}
+				continue;
+			}
+
+			User user = users.get(email.getUserId());
+
+			if (user == null) {
+				email.setStatus(Status.FAILED);
+				email.setLastError("User doesn't exist");
+				continue;
+			}
+
+			/* Over the domain's limit, try again when the window ends, it is not an attempt */
+			Window window = this.windows.computeIfAbsent(domain(email.getEmailId()), d -> new Window());
+
+			if (now - window.start >= TimeUnit.MINUTES.toMillis(1)) {
+				window.start = now;
+				window.count = 0;
+			}
+
+			if (window.count >= this.domainLimit) {
+				email.setNextAttemptOn(new Timestamp(window.start + TimeUnit.MINUTES.toMillis(1)));
+				continue;
+			}
+			window.count++;
+
+			sending.put(email, email.getType() == Type.VERIFY_EMAIL ? this.emailService.sendVerificationEmail(user)
+					: this.emailService.sendResetPasswordEmail(user));
+		}
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.sendTimeout);
+
+		sending.forEach((email, result) -> {
+			try {
+				result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+				email.setStatus(Status.SENT);
+				email.setSentOn(Timestamp.from(Instant.now()));
+			} catch (TimeoutException ex) {
+				/* The send may still succeed, the row stays pending until it completes */
+				this.inFlight.put(email.getEmailOutboxId(), result);
+				email.setNextAttemptOn(new Timestamp(System.currentTimeMillis() + this.sendTimeout));
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				this.retry(email, ex);
+			} catch (Exception ex) {
+				this.retry(email, ex);
+			}
+		});
+
+		this.emailOutboxRepository.saveAll(due);
+
+		this.windows.values().removeIf(w -> now - w.start >= TimeUnit.MINUTES.toMillis(1));
+
+		this.logger.debug("Email Outbox Dispatched, due: {}, sent: {}", due.size(),
+				due.stream().filter(e -> e.getStatus() == Status.SENT).count());
+	}
+
+	private void retry(EmailOutbox email, Exception ex) {
+
+		email.setAttempts(email.getAttempts() + 1);
+		email.setLastError(abbreviate(String.valueOf(ex.getMessage())));
+
+		if (email.getAttempts() >= this.maxAttempts) {
+			email.setStatus(Status.FAILED);
+			this.logger.error("Email Failed, giving up: {}", email);
+			return;
+		}
+
+		long delay = Math.min(this.maxBackoff, this.backoff << Math.min(email.getAttempts() - 1, 30));
+
+		email.setNextAttemptOn(new Timestamp(System.currentTimeMillis() + delay));
+	}
+
+	private static String domain(String emailId) {
+		return emailId.substring(emailId.lastIndexOf('@') + 1).toLowerCase();
+	}
+
+	private static String abbreviate(String message) {
+		return message.length() <= 255 ? message : message.substring(0, 255);
+	}
+}
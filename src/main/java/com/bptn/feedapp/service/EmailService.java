@@ -1,16 +1,25 @@
 package com.bptn.feedapp.service;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
+import com.bptn.feedapp.config.EmailConfig;
+import com.bptn.feedapp.domain.EmailStatistics;
+import com.bptn.feedapp.jdbc.DigestDao.Engagement;
 import com.bptn.feedapp.jpa.User;
 import com.bptn.feedapp.provider.ResourceProvider;
 import com.bptn.feedapp.security.JwtService;
@@ -36,20 +45,27 @@ public class EmailService {
 	@Autowired
 	JavaMailSender javaMailSender;
 
-	/* Helper method to send an email */
-	private void sendEmail(User user, String clientParam, String templateName, String emailSubject, long expiration) {
+	@Autowired
+	MailTransportService mailTransportService;
+
+	private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+	@Autowired
+	@Qualifier("emailExecutor")
+	ThreadPoolTaskExecutor emailExecutor;
+
+	/* Helper method to send an email, it completes once the SMTP server accepted it */
+	private CompletableFuture<Void> sendEmail(User user, String clientParam, String templateName, String emailSubject, long expiration) {
 
 		try {
 
-			/* Collect Data for the Email HTML generation */
-			Context context = new Context();
-			context.setVariable("user", user);
-			context.setVariable("client", this.provider.getClientUrl());
-			context.setVariable("param", clientParam);
-			context.setVariable("token", this.jwtService.generateJwtToken(user.getUsername(), expiration));
+			/* Templates are compiled on first use, the client url and param are fixed per template */
+			CompiledTemplate template = this.templates.computeIfAbsent(templateName,
+					name -> CompiledTemplate.compile(this.templateEngine, name, this.provider.getClientUrl(), clientParam));
 
-			/* Process Email HTML Template */
-			String process = this.templateEngine.process(templateName, context);
+			/* Fill in the Email HTML Template */
+			String process = template.render(user,
+					this.jwtService.generateJwtToken(user.getUsername(), user.getUserId(), expiration));
 
 			MimeMessage mimeMessage = this.javaMailSender.createMimeMessage();
 			MimeMessageHelper helper = new MimeMessageHelper(mimeMessage);
@@ -60,28 +76,75 @@ public class EmailService {
 			helper.setText(process, true);
 			helper.setTo(user.getEmailId());
 
-			/* Send Email */
-			this.javaMailSender.send(mimeMessage);
-
-			this.logger.debug("Email Sent, {} ", user.getEmailId());
+			/* Send Email over a pooled SMTP session */
+			return this.mailTransportService.send(mimeMessage).whenComplete((sent, ex) -> {
+				if (ex == null) {
+					this.logger.debug("Email Sent, {} ", user.getEmailId());
+				} else {
+					this.logger.error("Error while Sending Email, Username: " + user.getUsername(), ex);
+				}
+			});
 
 		} catch (Exception ex) {
 
 			this.logger.error("Error while Sending Email, Username: " + user.getUsername(), ex);
+
+			return CompletableFuture.failedFuture(ex);
 		}
 	}
 
-	@Async
-	public void sendVerificationEmail(User user) {
+	@Async("emailExecutor")
+	public CompletableFuture<Void> sendVerificationEmail(User user) {
 
-		this.sendEmail(user, this.provider.getClientVerifyParam(), "verifyEmail",
+		return this.sendEmail(user, this.provider.getClientVerifyParam(), "verifyEmail",
 				String.format("Welcome %s %s", user.getFirstName(), user.getLastName()),
 				this.provider.getClientVerifyExpiration());
 	}
 
-	@Async
-	public void sendResetPasswordEmail(User user) {
-		this.sendEmail(user, this.provider.getClientResetParam(), "resetPassword", "Reset your paswword",
+	@Async("emailExecutor")
+	public CompletableFuture<Void> sendResetPasswordEmail(User user) {
+		return this.sendEmail(user, this.provider.getClientResetParam(), "resetPassword", "Reset your paswword",
 				this.provider.getClientResetExpiration());
 	}
+
+	public EmailStatistics getStatistics() {
+		ThreadPoolExecutor executor = this.emailExecutor.getThreadPoolExecutor();
+
+		long rejected = ((EmailConfig.CountingCallerRunsPolicy) executor.getRejectedExecutionHandler())
+				.getRejectedCount();
+
+		return new EmailStatistics(executor.getPoolSize(), executor.getActiveCount(), executor.getQueue().size(),
+				this.emailExecutor.getQueueCapacity(), executor.getCompletedTaskCount(), rejected,
+				this.mailTransportService.getQueueSize(), this.mailTransportService.getSessionsOpened(),
+				this.mailTransportService.getBatchesSent(), this.mailTransportService.getMessagesSent(),
+				this.mailTransportService.getFailures());
+	}
+
+	/* Not async, the digest job runs it on its own threads */
+	public CompletableFuture<Void> sendDigestEmail(Engagement engagement) {
+
+		User user = engagement.user();
+
+		try {
+			CompiledTemplate template = this.templates.computeIfAbsent("digestEmail",
+					name -> CompiledTemplate.compile(this.templateEngine, name,
+							Map.of("client", this.provider.getClientUrl()), "likes", "comments"));
+
+			MimeMessage mimeMessage = this.javaMailSender.createMimeMessage();
+			MimeMessageHelper helper = new MimeMessageHelper(mimeMessage);
+
+			helper.setFrom(this.emailFrom, "FeedApp - Obsidi Academy");
+			helper.setSubject("Your week on the FeedApp");
+			helper.setText(template.render(user, null, engagement.likes(), engagement.comments()), true);
+			helper.setTo(user.getEmailId());
+
+			return this.mailTransportService.send(mimeMessage);
+
+		} catch (Exception ex) {
+
+			this.logger.error("Error while Sending Digest Email, Username: " + user.getUsername(), ex);
+
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
 }
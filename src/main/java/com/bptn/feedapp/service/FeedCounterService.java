@@ -0,0 +1,160 @@
+package com.bptn.feedapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.jdbc.FeedDao;
+import com.bptn.feedapp.jpa.Feed;
+
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Accumulates like and comment counts in memory and flushes them to the Feed
+ * table in periodic batched UPDATEs. Increments go to a LongAdder per feed, so
+ * concurrent likes on a hot feed are spread over striped cells instead of
+ * serializing on one database row.
+ */
+@Service
+public class FeedCounterService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	FeedDao feedDao;
+
+	private final Map<Integer, Counter> counters = new ConcurrentHashMap<>();
+
+	/*
+	 * Totals only grow, the flushed part is tracked separately so no increment
+	 * is lost while a flush is running.
+	 */
+	static class Counter {
+		final LongAdder likes = new LongAdder();
+		final LongAdder comments = new LongAdder();
+		/* Written by the flush, read by request threads in applyPending */
+		volatile long flushedLikes;
+		volatile long flushedComments;
+
+		long pendingLikes() {
+			return this.likes.sum() - this.flushedLikes;
+		}
+
+		long pendingComments() {
+			return this.comments.sum() - this.flushedComments;
+		}
+	}
+
+	private Counter counter(int feedId) {
+		return this.counters.computeIfAbsent(feedId, id -> new Counter());
+	}
+
+	public void incrementLikes(int feedId) {
+		this.counter(feedId).likes.increment();
+	}
+
+	/* Takes back a like that turned out to be a duplicate */
+	public void decrementLikes(int feedId) {
+		this.counter(feedId).likes.decrement();
+	}
+
+	public void incrementComments(int feedId) {
+		this.counter(feedId).comments.increment();
+	}
+
+	/* Adds the not yet flushed deltas to a feed loaded from the DB */
+	public Feed applyPending(Feed feed) {
+		Optional.ofNullable(this.counters.get(feed.getFeedId())).ifPresent(c -> {
+			feed.setLikeCount(feed.getLikeCount() + c.pendingLikes());
+			feed.setCommentCount(feed.getCommentCount() + c.pendingComments());
+		});
+
+		return feed;
+	}
+
+	/* Forget the deltas of a deleted feed */
+	public void discard(int feedId) {
+		this.counters.remove(feedId);
+	}
+
+	@Scheduled(fixedDelayString = "${feed.counters.flush-interval}")
+	public synchronized void flush() {
+
+		List<Integer> feedIds = new ArrayList<>();
+		List<Object[]> deltas = new ArrayList<>();
+		List<long[]> snapshots = new ArrayList<>();
+
+		this.counters.forEach((feedId, c) -> {
+			long likes = c.likes.sum();
+			long comments = c.comments.sum();
+
+			if (likes != c.flushedLikes || comments != c.flushedComments) {
+				feedIds.add(feedId);
+				deltas.add(new Object[] { likes - c.flushedLikes, comments - c.flushedComments, feedId });
+				snapshots.add(new long[] { likes, comments });
+			}
+		});
+
+		if (!deltas.isEmpty() && !this.write(feedIds, deltas, snapshots)) {
+			return;
+		}
+
+		/* Every flush, a busy system always has some feed with a pending delta */
+		this.evictIdle();
+	}
+
+	private boolean write(List<Integer> feedIds, List<Object[]> deltas, List<long[]> snapshots) {
+
+		try {
+			this.feedDao.addCounts(deltas);
+		} catch (Exception ex) {
+			/* Nothing is marked as flushed, the same deltas are retried on the next run */
+			this.logger.error("Error while Flushing Feed Counters, feeds: " + feedIds.size(), ex);
+			return false;
+		}
+
+		for (int i = 0; i < feedIds.size(); i++) {
+			Counter c = this.counters.get(feedIds.get(i));
+
+			if (c != null) {
+				c.flushedLikes = snapshots.get(i)[0];
+				c.flushedComments = snapshots.get(i)[1];
+			}
+		}
+
+		this.logger.debug("Feed Counters Flushed, feeds: {}", feedIds.size());
+
+		return true;
+	}
+
+	/* Drops counters with nothing left to flush, so the map only holds recently active feeds */
+	private void evictIdle() {
+		this.counters.forEach((feedId, c) -> {
+			if (c.pendingLikes() == 0 && c.pendingComments() == 0 && this.counters.remove(feedId, c)) {
+
+				/* An increment that raced with the removal is moved to the feed's new counter */
+				long likes = c.pendingLikes();
+				long comments = c.pendingComments();
+
+				if (likes != 0 || comments != 0) {
+					Counter current = this.counter(feedId);
+					current.likes.add(likes);
+					current.comments.add(comments);
+				}
+			}
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		this.flush();
+	}
+}
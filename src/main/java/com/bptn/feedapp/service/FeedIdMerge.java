@@ -0,0 +1,93 @@
+package com.bptn.feedapp.service;
+
+import java.util.Arrays;
+
+/*
+ * K-way merge of feedId streams, each sorted newest first, on a binary max-heap
+ * of stream indexes. Taking a page of n feedIds from k streams costs O(k) to
+ * build the heap and O(n log k) to merge, so a user following thousands of
+ * authors still pays only for the page. Plain int arrays, nothing is boxed.
+ */
+public final class FeedIdMerge {
+
+	private final int[][] streams;
+	private final int[] positions;
+	private final int[] heap;
+	private int size;
+
+	private FeedIdMerge(int[][] streams) {
+		this.streams = streams;
+		this.positions = new int[streams.length];
+		this.heap = new int[streams.length];
+
+		for (int s = 0; s < streams.length; s++) {
+			if (streams[s].length > 0) {
+				this.heap[this.size++] = s;
+			}
+		}
+
+		for (int i = this.size / 2 - 1; i >= 0; i--) {
+			this.siftDown(i);
+		}
+	}
+
+	private int head(int stream) {
+		return this.streams[stream][this.positions[stream]];
+	}
+
+	private void siftDown(int i) {
+		int stream = this.heap[i];
+		int value = this.head(stream);
+
+		while (true) {
+			int child = 2 * i + 1;
+
+			if (child >= this.size) {
+				break;
+			}
+
+			if (child + 1 < this.size && this.head(this.heap[child + 1]) > this.head(this.heap[child])) {
+				child++;
+			}
+
+			if (this.head(this.heap[child]) <= value) {
+				break;
+			}
+
+			this.heap[i] = this.heap[child];
+			i = child;
+		}
+
+		this.heap[i] = stream;
+	}
+
+	/* Up to limit feedIds not older than floor, newest first */
+	public static int[] merge(int[][] streams, int floor, int limit) {
+		FeedIdMerge merge = new FeedIdMerge(streams);
+
+		int[] page = new int[limit];
+		int count = 0;
+
+		while (count < limit && merge.size > 0) {
+			int stream = merge.heap[0];
+			int feedId = merge.head(stream);
+
+			if (feedId < floor) {
+				break;
+			}
+
+			page[count++] = feedId;
+
+			/* Advance the stream, or drop it from the heap when exhausted */
+			if (++merge.positions[stream] == streams[stream].length) {
+				merge.heap[0] = merge.heap[--merge.size];
+			}
+
+			if (merge.size > 0) {
+				merge.siftDown(0);
+			}
+		}
+
+		return Arrays.copyOf(page, count);
+	}
+}
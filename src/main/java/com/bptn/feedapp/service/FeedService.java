@@ -2,35 +2,42 @@ package com.bptn.feedapp.service;
 
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.bptn.feedapp.domain.CursorResponse;
 import com.bptn.feedapp.domain.PageResponse;
 import com.bptn.feedapp.exception.domain.FeedNotFoundException;
 import com.bptn.feedapp.exception.domain.FeedNotUserException;
 import com.bptn.feedapp.exception.domain.LikeExistException;
-import com.bptn.feedapp.exception.domain.UserNotFoundException;
 import com.bptn.feedapp.jpa.Feed;
 import com.bptn.feedapp.jpa.FeedMetaData;
 import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.provider.ResourceProvider;
 import com.bptn.feedapp.repository.FeedMetaDataRepository;
 import com.bptn.feedapp.repository.FeedRepository;
-import com.bptn.feedapp.repository.UserRepository;
 
 @Service
 public class FeedService {
 	final Logger logger = LoggerFactory.getLogger(this.getClass());
 
 	@Autowired
-	UserRepository userRepository;
+	CurrentUserService currentUserService;
 
 	@Autowired
 	FeedRepository feedRepository;
@@ -38,60 +45,244 @@ public class FeedService {
 	@Autowired
 	FeedMetaDataRepository feedMetaDataRepository;
 
+	@Autowired
+	FeedCounterService feedCounterService;
+
+	@Autowired
+	LikeMembershipService likeMembershipService;
+
+	@Autowired
+	LikeIngestionService likeIngestionService;
+
+	@Autowired
+	FeedViewCache feedViewCache;
+
+	@Autowired
+	TimelineService timelineService;
+
+	@Autowired
+	FollowService followService;
+
+	@Autowired
+	TrendingService trendingService;
+
+	@Autowired
+	SearchService searchService;
+
+	@Autowired
+	TagService tagService;
+
+	@Autowired
+	ResourceProvider provider;
+
+	/*
+	 * Fills in the likes and comments of the feeds being returned. The full mode
+	 * initializes Feed.feedMetaData, which is batch loaded for the whole page on
+	 * first access. The preview mode leaves it untouched and only loads the latest
+	 * few comments of every feed.
+	 */
+	private void loadMetaData(List<Feed> feeds, boolean preview) {
+
+		feeds.forEach(this.feedCounterService::applyPending);
+
+		if (!preview) {
+			feeds.forEach(f -> Hibernate.initialize(f.getFeedMetaData()));
+			return;
+		}
+
+		List<Integer> feedIds = feeds.stream().map(Feed::getFeedId).toList();
+
+		List<Integer> commentIds = feedIds.isEmpty() ? List.of()
+				: this.feedMetaDataRepository.findLatestCommentIds(feedIds, this.provider.getFeedPreviewSize());
+
+		Map<Integer, List<FeedMetaData>> comments = commentIds.isEmpty() ? Map.of()
+				: this.feedMetaDataRepository.findWithUserByIdIn(commentIds).stream()
+						.collect(Collectors.groupingBy(m -> m.getFeed().getFeedId()));
+
+		feeds.forEach(f -> f.setLatestComments(comments.getOrDefault(f.getFeedId(), List.of())));
+	}
+
 	/* To create a new Feed */
+	@Transactional
 	public Feed createFeed(Feed feed) {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-
-		User user = this.userRepository.findByUsername(username)
-				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
 
-		feed.setUser(user);
+		feed.setUser(this.currentUserService.getReference());
 		feed.setCreatedOn(Timestamp.from(Instant.now()));
+		feed.setLikeCount(0);
+		feed.setCommentCount(0);
 
-		return this.feedRepository.save(feed);
+		feed = this.feedRepository.save(feed);
+
+		/* Added to the other users' timelines once committed */
+		this.timelineService.addFeed(feed.getFeedId(), this.currentUserService.getUserId());
+		this.followService.addFeed(feed.getFeedId(), this.currentUserService.getUserId());
+		this.searchService.addFeed(feed.getFeedId(), feed.getContent());
+		this.tagService.addFeed(feed.getFeedId(), this.currentUserService.getUserId(), feed.getContent(),
+				feed.getCreatedOn());
+
+		/* The response carries the author, it comes from the second-level cache */
+		feed.setUser((User) Hibernate.unproxy(feed.getUser()));
+
+		return feed;
 
 	}
 
 	/* To get one feed by it's id */
-	public Feed getFeedbyId(int feedId) {
-		return this.feedRepository.findById(feedId)
+	@Transactional(readOnly = true)
+	public Feed getFeedbyId(int feedId, boolean preview) {
+		Feed feed = this.feedRepository.findById(feedId)
 				.orElseThrow(() -> new FeedNotFoundException((String.format("Feed doesn't exost, %d", feedId))));
+
+		this.loadMetaData(List.of(feed), preview);
+
+		return feed;
 	}
 
-	/* Get all feed related to the signedIn user */
-	public PageResponse<Feed> getUserFeeds(int pageNum, int pageSize) {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
+	/* Get the comments or likes of a feed older than the cursor, newest first */
+	@Transactional(readOnly = true)
+	public CursorResponse<FeedMetaData> getFeedMetaData(int feedId, boolean isLike, String before, int limit) {
+
+		if (!this.feedRepository.existsById(feedId)) {
+			throw new FeedNotFoundException(String.format("Feed doesn't exist, %d", feedId));
+		}
 
-		/* Check if the user exists */
-		User user = this.userRepository.findByUsername(username)
-				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+		int pageSize = CursorResponse.clampLimit(limit);
+
+		List<FeedMetaData> metaData = this.feedMetaDataRepository.findByFeedIdAndIsLikeBefore(feedId, isLike,
+				CursorResponse.decode(before, Integer.MAX_VALUE), PageRequest.of(0, pageSize + 1));
+
+		return CursorResponse.of(metaData, pageSize, FeedMetaData::getFeetMetaDataId);
+	}
+
+	/* Get all feed related to the signedIn user */
+	@Transactional(readOnly = true)
+	public PageResponse<Feed> getUserFeeds(int pageNum, int pageSize, boolean preview) {
+		User user = this.currentUserService.getReference();
 
 		Page<Feed> paged = this.feedRepository.findByUser(user,
 				PageRequest.of(pageNum, pageSize, Sort.by("feedId").descending()));
 
+		this.loadMetaData(paged.getContent(), preview);
+
 		return new PageResponse<Feed>(paged);
 	}
 
 	/* Get all feeds not related to the signed in user */
-	public PageResponse<Feed> getOtherUsersFeeds(int pageNum, int pageSize) {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-
-		User user = this.userRepository.findByUsername(username)
-				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+	@Transactional(readOnly = true)
+	public PageResponse<Feed> getOtherUsersFeeds(int pageNum, int pageSize, boolean preview) {
+		User user = this.currentUserService.getReference();
 
 		Page<Feed> paged = this.feedRepository.findByUserNot(user,
 				PageRequest.of(pageNum, pageSize, Sort.by("feedId").descending()));
 		
+		this.loadMetaData(paged.getContent(), preview);
+
 		return new PageResponse<Feed>(paged);
 	}
 	
+	/* Get the signed in user's feeds older than the cursor, newest first */
+	@Transactional(readOnly = true)
+	public CursorResponse<Feed> getUserFeeds(String before, int limit, boolean preview) {
+		User user = this.currentUserService.getReference();
+
+		int pageSize = CursorResponse.clampLimit(limit);
+
+		/* Fetch one extra row to know if there is a next page */
+		List<Feed> feeds = this.feedRepository.findByUserAndFeedIdLessThanOrderByFeedIdDesc(user,
+				CursorResponse.decode(before, Integer.MAX_VALUE), PageRequest.of(0, pageSize + 1));
+
+		this.loadMetaData(feeds, preview);
+
+		return CursorResponse.of(feeds, pageSize, Feed::getFeedId);
+	}
+
+	/* Get other users' feeds older than the cursor, newest first */
+	@Transactional(readOnly = true)
+	public CursorResponse<Feed> getOtherUsersFeeds(String before, int limit, boolean preview) {
+		User user = this.currentUserService.getReference();
+
+		int pageSize = CursorResponse.clampLimit(limit);
+
+		List<Feed> feeds = this.feedRepository.findByUserNotAndFeedIdLessThanOrderByFeedIdDesc(user,
+				CursorResponse.decode(before, Integer.MAX_VALUE), PageRequest.of(0, pageSize + 1));
+
+		this.loadMetaData(feeds, preview);
+
+		return CursorResponse.of(feeds, pageSize, Feed::getFeedId);
+	}
+
+	/*
+	 * Get the signed in user's home timeline older than the cursor, newest first.
+	 * With following, only the feeds of the users they follow.
+	 */
+	@Transactional(readOnly = true)
+	public CursorResponse<Feed> getTimeline(String before, int limit, boolean preview, boolean following) {
+		int userId = this.currentUserService.getUserId();
+
+		int pageSize = CursorResponse.clampLimit(limit);
+
+		/* One extra feedId tells if there is a next page */
+		int from = CursorResponse.decode(before, Integer.MAX_VALUE);
+
+		List<Integer> feedIds = following ? this.followService.page(userId, from, pageSize + 1)
+				: this.timelineService.page(userId, from, pageSize + 1);
+
+		return this.loadPage(feedIds, pageSize, preview);
+	}
+
+	/* Get the feeds with the hashtag older than the cursor, newest first */
+	@Transactional(readOnly = true)
+	public CursorResponse<Feed> getTaggedFeeds(String tag, String before, int limit, boolean preview) {
+		int pageSize = CursorResponse.clampLimit(limit);
+
+		int from = CursorResponse.decode(before, Integer.MAX_VALUE);
+
+		return this.loadPage(this.tagService.page(tag, from, pageSize + 1), pageSize, preview);
+	}
+
+	/* The feeds of a page of feedIds, one more than the page size when there is a next page */
+	private CursorResponse<Feed> loadPage(List<Integer> feedIds, int pageSize, boolean preview) {
+
+		String nextCursor = feedIds.size() > pageSize ? CursorResponse.encode(feedIds.get(pageSize - 1)) : null;
+
+		List<Integer> pageIds = feedIds.subList(0, Math.min(pageSize, feedIds.size()));
+
+		/* The whole page in one query, feeds deleted in the meantime are simply missing */
+		List<Feed> feeds = pageIds.isEmpty() ? List.of() : this.feedRepository.findByFeedIdInOrderByFeedIdDesc(pageIds);
+
+		this.loadMetaData(feeds, preview);
+
+		return new CursorResponse<>(feeds, pageSize, nextCursor);
+	}
+
+	/* Get the feeds matching every word of the query, best match first */
+	@Transactional(readOnly = true)
+	public List<Feed> searchFeeds(String query, int limit, boolean preview) {
+		List<Integer> feedIds = this.searchService.search(query, CursorResponse.clampLimit(limit));
+
+		if (feedIds.isEmpty()) {
+			return List.of();
+		}
+
+		/* One query for the page, put back in rank order */
+		Map<Integer, Feed> feeds = this.feedRepository.findByFeedIdInOrderByFeedIdDesc(feedIds).stream()
+				.collect(Collectors.toMap(Feed::getFeedId, Function.identity()));
+
+		List<Feed> ranked = feedIds.stream().map(feeds::get).filter(Objects::nonNull).toList();
+
+		this.loadMetaData(ranked, preview);
+
+		return ranked;
+	}
+
 	/* To add comment or like */
+	@Transactional
 	public FeedMetaData createFeedMetaData(int feedId, FeedMetaData meta) {
 		
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-			
-		User user = this.userRepository.findByUsername(username)
-					             .orElseThrow(()-> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+		String username = this.currentUserService.getUsername();
+
+		/* The response carries the user, it comes from the second-level cache */
+		User user = this.currentUserService.getUser();
 			
 		Feed feed = this.feedRepository.findById(feedId)
 					             .orElseThrow(()-> new FeedNotFoundException(String.format("Feed doesn't exist, %d", feedId)));
@@ -109,12 +300,26 @@ public class FeedService {
 	            
 	        if (meta.getIsLike()) {
 	        		
-	            feed.getFeedMetaData().stream()
-	                      .filter(m -> m.getUser().getUsername().equals(username))
-	      	              .filter(m -> m.getIsLike().equals(true)).findAny()
-	      	              .ifPresent(m -> {throw new LikeExistException(String.format("Feed already liked, feedId: %d, username: %s", feedId, username));});
+	            if (this.likeMembershipService.hasLiked(feedId, user.getUserId())) {
+	                throw new LikeExistException(String.format("Feed already liked, feedId: %d, username: %s", feedId, username));
+	            }
 	            	
 	            newMeta.setComment("");
+
+	            /* Likes are written behind in batches, the response carries no feedMetaDataId */
+	            if (this.likeIngestionService.isEnabled()) {
+	            	try {
+	            		this.likeIngestionService.accept(feedId, user.getUserId(), newMeta.getCreatedOn());
+	            	} catch (LikeExistException ex) {
+	            		throw new LikeExistException(String.format("Feed already liked, feedId: %d, username: %s", feedId, username));
+	            	}
+
+	            	/* Membership and trending follow once the row is written, the pending set covers the gap */
+	            	this.feedCounterService.incrementLikes(feedId);
+	            	this.feedViewCache.invalidate(feedId);
+
+	            	return newMeta;
+	            }
 	        }
 	    } 
 	        
@@ -122,20 +327,48 @@ public class FeedService {
 	        newMeta.setComment(meta.getComment());
 	    }
 	        
-		return this.feedMetaDataRepository.save(newMeta);
+		/* Flushed here, pooled ids would otherwise defer the unique index check to the commit */
+		try {
+			newMeta = this.feedMetaDataRepository.saveAndFlush(newMeta);
+		} catch (DataIntegrityViolationException ex) {
+			/* A concurrent like of the same user won the race on the unique index */
+			throw new LikeExistException(String.format("Feed already liked, feedId: %d, username: %s", feedId, username));
+		}
+
+		/* Counters are accumulated in memory and flushed in batches */
+		if (newMeta.getIsLike()) {
+			this.likeMembershipService.addLike(feedId, user.getUserId());
+			this.feedCounterService.incrementLikes(feedId);
+		} else {
+			this.feedCounterService.incrementComments(feedId);
+		}
+
+		this.trendingService.record(feedId, newMeta.getIsLike(), newMeta.getCreatedOn().getTime());
+		this.feedViewCache.invalidate(feedId);
+
+		return newMeta;
 	}
 
 	/* To delete a Feed */
 	public void deleteFeed(int feedId) {
 		
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
+		String username = this.currentUserService.getUsername();
+		int userId = this.currentUserService.getUserId();
 		
 		Feed feed = this.feedRepository.findById(feedId)			
 		             .orElseThrow(()-> new FeedNotFoundException(String.format("Feed doesn't exist, %d", feedId)));
 
-		Optional.of(feed).filter(f -> f.getUser().getUsername().equals(username))
+		Optional.of(feed).filter(f -> f.getUser().getUserId() == userId)
 			         .orElseThrow(()-> new FeedNotUserException(String.format("Feed doesn't belong to current User, feedId: %d, username: %s", feedId, username)));
 			
 		this.feedRepository.delete(feed);
+		this.feedCounterService.discard(feedId);
+		this.likeMembershipService.discard(feedId);
+		this.trendingService.discard(feedId);
+		this.feedViewCache.invalidate(feedId);
+		this.timelineService.removeFeed(feedId);
+		this.followService.removeFeed(feedId, userId);
+		this.searchService.removeFeed(feedId, feed.getContent());
+		this.tagService.removeFeed(feedId, feed.getContent());
 	}
 }
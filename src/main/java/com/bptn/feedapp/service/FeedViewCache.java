@@ -0,0 +1,104 @@
+package com.bptn.feedapp.service;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bptn.feedapp.domain.CacheStatistics;
+import com.bptn.feedapp.jpa.Feed;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Keeps the JSON of single feed views in a bounded in-memory cache, so hot
+ * feeds are served without touching the database. Views are stored serialized,
+ * which makes them immutable and free of lazy Hibernate state. Entries expire
+ * after the ttl and are evicted by size, writes drop them after commit.
+ */
+@Service
+public class FeedViewCache {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Value("${feed.cache.enabled}")
+	private boolean enabled;
+
+	@Value("${feed.cache.max-size}")
+	private long maxSize;
+
+	@Value("${feed.cache.ttl}")
+	private long ttl;
+
+	record Key(int feedId, boolean preview) {
+	}
+
+	private Cache<Key, byte[]> cache;
+
+	@PostConstruct
+	public void init() {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(this.maxSize)
+				.expireAfterWrite(Duration.ofMillis(this.ttl))
+				.recordStats()
+				.build();
+	}
+
+	/*
+	 * Loads go through the cache's compute, so an invalidation issued while a
+	 * stale view is being loaded waits for it and then removes it.
+	 */
+	public byte[] get(int feedId, boolean preview, Supplier<Feed> loader) {
+
+		if (!this.enabled) {
+			return this.serialize(loader.get());
+		}
+
+		return this.cache.get(new Key(feedId, preview), k -> this.serialize(loader.get()));
+	}
+
+	/* Drop both views of the feed, after commit when called inside a transaction */
+	public void invalidate(int feedId) {
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					FeedViewCache.this.evict(feedId);
+				}
+			});
+			return;
+		}
+
+		this.evict(feedId);
+	}
+
+	private void evict(int feedId) {
+		this.cache.invalidate(new Key(feedId, false));
+		this.cache.invalidate(new Key(feedId, true));
+	}
+
+	public CacheStatistics getStatistics() {
+		return CacheStatistics.of("feedViews", this.cache.estimatedSize(), this.cache.stats());
+	}
+
+	private byte[] serialize(Feed feed) {
+		try {
+			return this.objectMapper.writeValueAsBytes(feed);
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException(String.format("Feed can't be serialized, feedId: %d", feed.getFeedId()), ex);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.bptn.feedapp.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Adjacency index of the follow graph, a sorted int[] of followees and one of
+ * followers per userId. An array is never modified once published: a follow
+ * replaces it with a copy, so readers take it without locking and a user
+ * following thousands of accounts costs 4 bytes per edge instead of a boxed
+ * set entry.
+ */
+public class FollowGraph {
+
+	private static final int[] EMPTY = new int[0];
+
+	private final Map<Integer, int[]> following = new ConcurrentHashMap<>();
+	private final Map<Integer, int[]> followers = new ConcurrentHashMap<>();
+
+	private final AtomicLong edges = new AtomicLong();
+
+	/* Collects the edges of a bulk load, the arrays are sorted once at the end */
+	public static class Builder {
+
+		private final Map<Integer, int[]> following = new HashMap<>();
+		private final Map<Integer, int[]> followers = new HashMap<>();
+		private final Map<Integer, Integer> followingSizes = new HashMap<>();
+		private final Map<Integer, Integer> followersSizes = new HashMap<>();
+		private long edges;
+
+		private static void append(Map<Integer, int[]> index, Map<Integer, Integer> sizes, int key, int value) {
+			int size = sizes.getOrDefault(key, 0);
+			int[] ids = index.get(key);
+
+			if (ids == null) {
+				ids = new int[4];
+				index.put(key, ids);
+			} else if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				index.put(key, ids);
+			}
+
+			ids[size] = value;
+			sizes.put(key, size + 1);
+		}
+
+		public void add(int followerId, int followeeId) {
+			append(this.following, this.followingSizes, followerId, followeeId);
+			append(this.followers, this.followersSizes, followeeId, followerId);
+			this.edges++;
+		}
+
+		private static void copy(Map<Integer, int[]> from, Map<Integer, Integer> sizes, Map<Integer, int[]> to) {
+			from.forEach((key, ids) -> {
+				int[] sorted = Arrays.copyOf(ids, sizes.get(key));
+				Arrays.sort(sorted);
+				to.put(key, sorted);
+			});
+		}
+
+		public FollowGraph build() {
+			FollowGraph graph = new FollowGraph();
+
+			copy(this.following, this.followingSizes, graph.following);
+			copy(this.followers, this.followersSizes, graph.followers);
+			graph.edges.set(this.edges);
+
+			return graph;
+		}
+	}
+
+	private static boolean insert(Map<Integer, int[]> index, int key, int value) {
+		boolean[] inserted = { false };
+
+		index.compute(key, (k, ids) -> {
+			ids = ids == null ? EMPTY : ids;
+			int position = Arrays.binarySearch(ids, value);
+
+			if (position >= 0) {
+				return ids;
+			}
+
+			position = -position - 1;
+
+			int[] copy = new int[ids.length + 1];
+			System.arraycopy(ids, 0, copy, 0, position);
+			copy[position] = value;
+			System.arraycopy(ids, position, copy, position + 1, ids.length - position);
+
+			inserted[0] = true;
+			return copy;
+		});
+
+		return inserted[0];
+	}
+
+	private static boolean delete(Map<Integer, int[]> index, int key, int value) {
+		boolean[] deleted = { false };
+
+		index.computeIfPresent(key, (k, ids) -> {
+			int position = Arrays.binarySearch(ids, value);
+
+			if (position < 0) {
+				return ids;
+			}
+
+			deleted[0] = true;
+
+			if (ids.length == 1) {
+				return null;
+			}
+
+			int[] copy = new int[ids.length - 1];
+			System.arraycopy(ids, 0, copy, 0, position);
+			System.arraycopy(ids, position + 1, copy, position, ids.length - position - 1);
+
+			return copy;
+		});
+
+		return deleted[0];
+	}
+
+	/* False when the edge already existed */
+	public boolean add(int followerId, int followeeId) {
+
+		if (!insert(this.following, followerId, followeeId)) {
+			return false;
+		}
+
+		insert(this.followers, followeeId, followerId);
+		this.edges.incrementAndGet();
+
+		return true;
+	}
+
+	/* False when there was no edge */
+	public boolean remove(int followerId, int followeeId) {
+
+		if (!delete(this.following, followerId, followeeId)) {
+			return false;
+		}
+
+		delete(this.followers, followeeId, followerId);
+		this.edges.decrementAndGet();
+
+		return true;
+	}
+
+	/* The followees, sorted, must not be modified */
+	public int[] following(int userId) {
+		return this.following.getOrDefault(userId, EMPTY);
+	}
+
+	/* The followers, sorted, must not be modified */
+	public int[] followers(int userId) {
+		return this.followers.getOrDefault(userId, EMPTY);
+	}
+
+	public boolean isFollowing(int followerId, int followeeId) {
+		return Arrays.binarySearch(this.following(followerId), followeeId) >= 0;
+	}
+
+	public long edgeCount() {
+		return this.edges.get();
+	}
+}
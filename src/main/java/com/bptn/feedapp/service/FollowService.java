@@ -0,0 +1,266 @@
+package com.bptn.feedapp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.domain.FollowStatus;
+import com.bptn.feedapp.exception.domain.FollowSelfException;
+import com.bptn.feedapp.exception.domain.UserNotFoundException;
+import com.bptn.feedapp.jdbc.FollowDao;
+import com.bptn.feedapp.repository.UserRepository;
+
+/*
+ * Follow graph and the following timeline. The graph is loaded into a
+ * FollowGraph at startup; until then, reads go to the Follow table and changes
+ * are held back and replayed on the loaded graph.
+ *
+ * The timeline merges the newest feedIds of every followed author. Each author's
+ * feedIds are kept in a TimelineRing, loaded in batches the first time they are
+ * needed and updated as feeds are created, and FeedIdMerge merges them with a
+ * heap. Only pages older than some author's ring go to the Feed table.
+ */
+@Service
+public class FollowService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/* Authors per query when loading rings, keeps the IN lists short */
+	private static final int LOAD_CHUNK = 1_000;
+
+	@Autowired
+	FollowDao followDao;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	CurrentUserService currentUserService;
+
+	@Value("${feed.follow.author-capacity}")
+	private int authorCapacity;
+
+	@Value("${feed.follow.max-authors}")
+	private int maxAuthors;
+
+	@Value("${feed.follow.fetch-size}")
+	private int fetchSize;
+
+	record Change(int followerId, int followeeId, boolean follow) {
+
+		void applyTo(FollowGraph graph) {
+			if (this.follow) {
+				graph.add(this.followerId, this.followeeId);
+			} else {
+				graph.remove(this.followerId, this.followeeId);
+			}
+		}
+	}
+
+	private volatile FollowGraph graph;
+
+	/* Changes made while the graph loads, guarded by itself */
+	private final List<Change> pending = new ArrayList<>();
+
+	private final Map<Integer, TimelineRing> authors = new ConcurrentHashMap<>();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		long start = System.currentTimeMillis();
+
+		FollowGraph.Builder builder = new FollowGraph.Builder();
+
+		this.followDao.forEachEdge(this.fetchSize, builder::add);
+
+		FollowGraph graph = builder.build();
+
+		synchronized (this.pending) {
+			this.pending.forEach(change -> change.applyTo(graph));
+			this.pending.clear();
+			this.graph = graph;
+		}
+
+		logger.debug("Loaded {} follow edges in {} ms", graph.edgeCount(), System.currentTimeMillis() - start);
+	}
+
+	private void apply(Change change) {
+		FollowGraph graph;
+
+		synchronized (this.pending) {
+			graph = this.graph;
+
+			if (graph == null) {
+				this.pending.add(change);
+				return;
+			}
+		}
+
+		change.applyTo(graph);
+	}
+
+	private int resolve(String username) {
+		return this.userRepository.findByUsername(username).map(u -> u.getUserId())
+				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+	}
+
+	/* The followees of the user, sorted */
+	private int[] following(int userId) {
+		FollowGraph graph = this.graph;
+
+		return graph != null ? graph.following(userId)
+				: this.followDao.findFolloweeIds(userId).stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	public FollowStatus getStatus(String username) {
+		int userId = this.currentUserService.getUserId();
+		int followeeId = this.resolve(username);
+
+		FollowGraph graph = this.graph;
+
+		if (graph == null) {
+			return new FollowStatus(username, Arrays.binarySearch(this.following(userId), followeeId) >= 0,
+					this.followDao.countFollowers(followeeId), this.following(followeeId).length);
+		}
+
+		return new FollowStatus(username, graph.isFollowing(userId, followeeId), graph.followers(followeeId).length,
+				graph.following(followeeId).length);
+	}
+
+	public FollowStatus follow(String username) {
+		int userId = this.currentUserService.getUserId();
+		int followeeId = this.resolve(username);
+
+		if (userId == followeeId) {
+			throw new FollowSelfException(String.format("Users cannot follow themselves, %s", username));
+		}
+
+		if (this.followDao.follow(userId, followeeId)) {
+			this.apply(new Change(userId, followeeId, true));
+		}
+
+		return this.getStatus(username);
+	}
+
+	public FollowStatus unfollow(String username) {
+		int userId = this.currentUserService.getUserId();
+		int followeeId = this.resolve(username);
+
+		if (this.followDao.unfollow(userId, followeeId)) {
+			this.apply(new Change(userId, followeeId, false));
+		}
+
+		return this.getStatus(username);
+	}
+
+	/* Only rings already in memory are updated, the others are loaded with the feed */
+	public void addFeed(int feedId, int authorId) {
+		InMemoryState.afterCommit(() -> {
+			TimelineRing ring = this.authors.get(authorId);
+
+			if (ring != null) {
+				synchronized (ring) {
+					ring.add(feedId);
+				}
+			}
+		});
+	}
+
+	/* A ring that lost an entry may no longer hold all of the author's newest feeds, it is reloaded */
+	public void removeFeed(int feedId, int authorId) {
+		InMemoryState.afterCommit(() -> this.authors.remove(authorId));
+	}
+
+	/* The rings of the authors, the ones not in memory yet are loaded in batches */
+	private TimelineRing[] rings(int[] authorIds) {
+		TimelineRing[] rings = new TimelineRing[authorIds.length];
+		Map<Integer, TimelineRing> unloaded = new HashMap<>();
+
+		for (int i = 0; i < authorIds.length; i++) {
+			int authorId = authorIds[i];
+
+			InMemoryState.makeRoom(this.authors, authorId, this.maxAuthors);
+
+			/* Registered before it is loaded, so no feed created in between is missed */
+			TimelineRing ring = this.authors.computeIfAbsent(authorId, id -> new TimelineRing(this.authorCapacity));
+			rings[i] = ring;
+
+			synchronized (ring) {
+				if (!ring.loaded) {
+					unloaded.put(authorId, ring);
+				}
+			}
+		}
+
+		List<Integer> authorIdList = new ArrayList<>(unloaded.keySet());
+
+		for (int from = 0; from < authorIdList.size(); from += LOAD_CHUNK) {
+			List<Integer> chunk = authorIdList.subList(from, Math.min(from + LOAD_CHUNK, authorIdList.size()));
+
+			this.followDao.forEachNewestFeedId(chunk, this.authorCapacity, (authorId, feedId) -> {
+				TimelineRing ring = unloaded.get(authorId);
+
+				synchronized (ring) {
+					ring.add(feedId);
+				}
+			});
+		}
+
+		unloaded.values().forEach(ring -> {
+			synchronized (ring) {
+				ring.loaded = true;
+			}
+		});
+
+		return rings;
+	}
+
+	/* Up to limit feedIds of the followed authors older than before, newest first */
+	public List<Integer> page(int userId, int before, int limit) {
+		int[] followees = this.following(userId);
+
+		if (followees.length == 0) {
+			return List.of();
+		}
+
+		TimelineRing[] rings = this.rings(followees);
+		int[][] streams = new int[rings.length][];
+
+		/* Below the oldest feedId of a full ring, that author's feeds are not all in memory */
+		int floor = Integer.MIN_VALUE;
+
+		for (int i = 0; i < rings.length; i++) {
+			synchronized (rings[i]) {
+				streams[i] = rings[i].page(before, limit);
+
+				if (rings[i].isFull()) {
+					floor = Math.max(floor, rings[i].oldest());
+				}
+			}
+		}
+
+		List<Integer> feedIds = new ArrayList<>(limit);
+
+		for (int feedId : FeedIdMerge.merge(streams, floor, limit)) {
+			feedIds.add(feedId);
+		}
+
+		/* Every feedId from the floor up was merged, the rest comes from the Feed table */
+		if (feedIds.size() < limit && floor != Integer.MIN_VALUE) {
+			List<Integer> authorIds = Arrays.stream(followees).boxed().toList();
+
+			feedIds.addAll(this.followDao.findFeedIds(authorIds, Math.min(before, floor), limit - feedIds.size()));
+		}
+
+		return feedIds;
+	}
+}
@@ -0,0 +1,48 @@
+package com.bptn.feedapp.service;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+ * Helpers shared by the services that keep DB backed state in memory: the
+ * rings, sets and indexes they hold are bounded caches of what the tables
+ * store, updated only with changes that committed.
+ */
+final class InMemoryState {
+
+	private InMemoryState() {
+	}
+
+	/* Runs the task once the current transaction commits, right away outside of one */
+	static void afterCommit(Runnable task) {
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					task.run();
+				}
+			});
+		} else {
+			task.run();
+		}
+	}
+
+	/*
+	 * Makes room for the key in a map holding at most max entries by dropping an
+	 * arbitrary other one. Every entry can be rebuilt from the DB, an evicted one
+	 * is simply reloaded the next time it is needed, so no recency is tracked.
+	 */
+	static <K> void makeRoom(Map<K, ?> map, K key, int max) {
+
+		if (map.size() >= max && !map.containsKey(key)) {
+			Iterator<K> it = map.keySet().iterator();
+			if (it.hasNext()) {
+				map.remove(it.next());
+			}
+		}
+	}
+}
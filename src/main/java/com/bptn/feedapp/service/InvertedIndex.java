@@ -0,0 +1,266 @@
+package com.bptn.feedapp.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * Term to PostingList index over feed contents. A query returns the feeds that
+ * contain every term, ranked by BM25 without length normalization: rare terms
+ * weigh more than common ones and repeats of a term count with diminishing
+ * returns. Ties go to the newer feed.
+ *
+ * The intersection walks the rarest term's list and advances the others to
+ * each of its feedIds, skipping whole blocks, so its cost follows the rarest
+ * term and not the most common one. Not thread safe, SearchService guards it.
+ */
+public class InvertedIndex {
+
+	/* Longer tokens are cut, no one searches for them in full */
+	static final int MAX_TERM_LENGTH = 32;
+
+	private static final double K1 = 1.2;
+
+	private final Map<String, PostingList> postings = new HashMap<>();
+	private int feedCount;
+
+	/* The best hits so far, a bounded min-heap on parallel arrays so a common term allocates nothing per feed */
+	private static final class TopHits {
+
+		private final int[] feedIds;
+		private final double[] scores;
+		private int size;
+
+		TopHits(int limit) {
+			this.feedIds = new int[limit];
+			this.scores = new double[limit];
+		}
+
+		/* Lower score first, the older feed on a tie */
+		private boolean worse(double score, int feedId, int i) {
+			return score < this.scores[i] || score == this.scores[i] && feedId < this.feedIds[i];
+		}
+
+		private void set(int i, double score, int feedId) {
+			this.scores[i] = score;
+			this.feedIds[i] = feedId;
+		}
+
+		void offer(int feedId, double score) {
+
+			if (this.size < this.feedIds.length) {
+				int i = this.size++;
+
+				while (i > 0 && this.worse(score, feedId, (i - 1) / 2)) {
+					this.set(i, this.scores[(i - 1) / 2], this.feedIds[(i - 1) / 2]);
+					i = (i - 1) / 2;
+				}
+				this.set(i, score, feedId);
+				return;
+			}
+
+			if (this.worse(score, feedId, 0)) {
+				return;
+			}
+
+			this.siftDown(score, feedId);
+		}
+
+		private void siftDown(double score, int feedId) {
+			int i = 0;
+
+			while (true) {
+				int child = 2 * i + 1;
+
+				if (child >= this.size) {
+					break;
+				}
+
+				if (child + 1 < this.size && this.worse(this.scores[child + 1], this.feedIds[child + 1], child)) {
+					child++;
+				}
+
+				if (this.worse(score, feedId, child)) {
+					break;
+				}
+
+				this.set(i, this.scores[child], this.feedIds[child]);
+				i = child;
+			}
+
+			this.set(i, score, feedId);
+		}
+
+		/* Best first, empties the heap */
+		int[] drain() {
+			int[] best = new int[this.size];
+
+			for (int i = best.length - 1; i >= 0; i--) {
+				best[i] = this.feedIds[0];
+
+				this.size--;
+				if (this.size > 0) {
+					this.siftDown(this.scores[this.size], this.feedIds[this.size]);
+				}
+			}
+
+			return best;
+		}
+	}
+
+	/* Lower cased runs of letters and digits with their counts, in order of appearance */
+	public static Map<String, Integer> terms(String text) {
+		Map<String, Integer> terms = new LinkedHashMap<>();
+
+		if (text == null) {
+			return terms;
+		}
+
+		int start = -1;
+
+		for (int i = 0; i <= text.length(); i++) {
+			boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+
+			if (word && start < 0) {
+				start = i;
+			} else if (!word && start >= 0) {
+				String term = text.substring(start, Math.min(i, start + MAX_TERM_LENGTH)).toLowerCase(Locale.ROOT);
+				terms.merge(term, 1, Integer::sum);
+				start = -1;
+			}
+		}
+
+		return terms;
+	}
+
+	/* The distinct terms of a query, at most max of them */
+	public static List<String> queryTerms(String query, int max) {
+		return terms(query).keySet().stream().limit(max).toList();
+	}
+
+	public void add(int feedId, String content) {
+		boolean added = false;
+
+		for (Map.Entry<String, Integer> term : terms(content).entrySet()) {
+			added |= this.postings.computeIfAbsent(term.getKey(), t -> new PostingList()).add(feedId,
+					term.getValue());
+		}
+
+		if (added) {
+			this.feedCount++;
+		}
+	}
+
+	public void remove(int feedId, String content) {
+		boolean removed = false;
+
+		for (String term : terms(content).keySet()) {
+			PostingList list = this.postings.get(term);
+
+			if (list != null && list.remove(feedId)) {
+				removed = true;
+
+				if (list.size() == 0) {
+					this.postings.remove(term);
+				}
+			}
+		}
+
+		if (removed) {
+			this.feedCount--;
+		}
+	}
+
+	public int feedCount() {
+		return this.feedCount;
+	}
+
+	public int termCount() {
+		return this.postings.size();
+	}
+
+	public long byteSize() {
+		return this.postings.values().stream().mapToLong(PostingList::byteSize).sum();
+	}
+
+	private double idf(PostingList list) {
+		double df = list.size();
+
+		return Math.log(1 + (this.feedCount - df + 0.5) / (df + 0.5));
+	}
+
+	/* The best ranked feeds containing every term, best first */
+	public int[] search(List<String> terms, int limit) {
+
+		if (terms.isEmpty() || limit <= 0) {
+			return new int[0];
+		}
+
+		List<PostingList> lists = new ArrayList<>(terms.size());
+
+		for (String term : terms) {
+			PostingList list = this.postings.get(term);
+
+			/* A term no feed contains, nothing can match */
+			if (list == null) {
+				return new int[0];
+			}
+			lists.add(list);
+		}
+
+		lists.sort(Comparator.comparingInt(PostingList::size));
+
+		PostingList.Cursor[] cursors = new PostingList.Cursor[lists.size()];
+		double[] idfs = new double[lists.size()];
+
+		for (int i = 0; i < cursors.length; i++) {
+			cursors[i] = lists.get(i).cursor();
+			idfs[i] = this.idf(lists.get(i));
+		}
+
+		TopHits best = new TopHits(limit);
+
+		PostingList.Cursor lead = cursors[0];
+
+		if (!lead.next()) {
+			return new int[0];
+		}
+
+		outer: while (true) {
+			int feedId = lead.feedId();
+
+			for (int i = 1; i < cursors.length; i++) {
+				if (!cursors[i].advance(feedId)) {
+					break outer;
+				}
+
+				/* Not in this list, move the rarest list on to where this one is */
+				if (cursors[i].feedId() > feedId) {
+					if (!lead.advance(cursors[i].feedId())) {
+						break outer;
+					}
+					continue outer;
+				}
+			}
+
+			double score = 0;
+
+			for (int i = 0; i < cursors.length; i++) {
+				double tf = cursors[i].frequency();
+				score += idfs[i] * tf * (K1 + 1) / (tf + K1);
+			}
+
+			best.offer(feedId, score);
+
+			if (!lead.next()) {
+				break;
+			}
+		}
+
+		return best.drain();
+	}
+}
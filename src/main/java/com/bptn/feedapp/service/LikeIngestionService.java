@@ -0,0 +1,213 @@
+package com.bptn.feedapp.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.exception.domain.LikeExistException;
+import com.bptn.feedapp.exception.domain.LikeQueueFullException;
+import com.bptn.feedapp.jdbc.FeedDao;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Write-behind pipeline for likes. Accepted likes wait in a bounded queue and a
+ * single writer thread inserts them with JDBC batches, flushing when a batch is
+ * full or when the oldest like waited for the configured latency. A full queue
+ * rejects new likes instead of blocking request threads. A like reaches the
+ * membership sets and the trending scores once its row is written.
+ */
+@Service
+public class LikeIngestionService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	FeedDao feedDao;
+
+	@Autowired
+	FeedCounterService feedCounterService;
+
+	@Autowired
+	FeedViewCache feedViewCache;
+
+	@Autowired
+	LikeMembershipService likeMembershipService;
+
+	@Autowired
+	TrendingService trendingService;
+
+	@Value("${feed.likes.ingest.enabled}")
+	private boolean enabled;
+
+	@Value("${feed.likes.ingest.queue-capacity}")
+	private int queueCapacity;
+
+	@Value("${feed.likes.ingest.batch-size}")
+	private int batchSize;
+
+	@Value("${feed.likes.ingest.max-latency}")
+	private long maxLatency;
+
+	record Like(int feedId, int userId, Timestamp createdOn) {
+	}
+
+	private BlockingQueue<Like> queue;
+
+	/* Likes accepted but not yet written, used to coalesce repeated clicks */
+	private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+	private Thread writer;
+
+	private volatile boolean running;
+
+	private static long key(int feedId, int userId) {
+		return ((long) feedId << 32) | (userId & 0xffffffffL);
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	@PostConstruct
+	public void start() {
+
+		if (!this.enabled) {
+			return;
+		}
+
+		this.queue = new ArrayBlockingQueue<>(this.queueCapacity);
+		this.running = true;
+
+		this.writer = new Thread(this::run, "like-ingest");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/* Queues a like, the caller has already checked that it is not stored yet */
+	public void accept(int feedId, int userId, Timestamp createdOn) {
+
+		long key = key(feedId, userId);
+
+		if (!this.pending.add(key)) {
+			throw new LikeExistException(String.format("Feed already liked, feedId: %d, userId: %d", feedId, userId));
+		}
+
+		if (!this.queue.offer(new Like(feedId, userId, createdOn))) {
+			this.pending.remove(key);
+			throw new LikeQueueFullException(String.format("Too many likes, please try again, feedId: %d", feedId));
+		}
+	}
+
+	private void run() {
+
+		List<Like> batch = new ArrayList<>(this.batchSize);
+		boolean interrupted = false;
+
+		while (this.running || !this.queue.isEmpty()) {
+			try {
+				Like first = this.queue.poll(this.maxLatency, TimeUnit.MILLISECONDS);
+
+				if (first == null) {
+					continue;
+				}
+
+				batch.add(first);
+
+				/* Wait at most maxLatency after the first like for the batch to fill up */
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.maxLatency);
+
+				while (batch.size() < this.batchSize) {
+					Like next = this.queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+
+				this.write(batch);
+				batch.clear();
+
+			} catch (InterruptedException ex) {
+				/* Likes already polled stay in the batch and are written below */
+				interrupted = true;
+				this.running = false;
+			}
+		}
+
+		/* Write whatever is left after a shutdown, before the interrupt is restored */
+		this.queue.drainTo(batch);
+
+		if (!batch.isEmpty()) {
+			this.write(batch);
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void write(List<Like> batch) {
+
+		List<Object[]> rows = batch.stream().map(l -> new Object[] { l.feedId(), l.userId(), l.createdOn() })
+				.toList();
+
+		try {
+			this.feedDao.insertLikes(rows);
+			batch.forEach(this::written);
+			this.logger.debug("Likes Written, batch: {}", batch.size());
+		} catch (Exception ex) {
+
+			/* One bad row fails the whole batch, so retry row by row and skip the bad ones */
+			this.logger.debug("Like Batch Failed, retrying row by row, Reason: {}", ex.getMessage());
+
+			for (int i = 0; i < batch.size(); i++) {
+				try {
+					this.feedDao.insertLikes(Collections.singletonList(rows.get(i)));
+					this.written(batch.get(i));
+				} catch (DuplicateKeyException dup) {
+					/* Stored already, only the count taken at accept is undone */
+					this.likeMembershipService.addLike(batch.get(i).feedId(), batch.get(i).userId());
+					this.feedCounterService.decrementLikes(batch.get(i).feedId());
+					this.feedViewCache.invalidate(batch.get(i).feedId());
+				} catch (Exception rowEx) {
+					this.feedCounterService.decrementLikes(batch.get(i).feedId());
+					this.feedViewCache.invalidate(batch.get(i).feedId());
+					this.logger.error("Error while Writing Like, feedId: " + batch.get(i).feedId(), rowEx);
+				}
+			}
+		} finally {
+			batch.forEach(l -> this.pending.remove(key(l.feedId(), l.userId())));
+		}
+	}
+
+	private void written(Like like) {
+		this.likeMembershipService.addLike(like.feedId(), like.userId());
+		this.trendingService.record(like.feedId(), true, like.createdOn().getTime());
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+
+		if (this.writer == null) {
+			return;
+		}
+
+		this.running = false;
+		this.writer.join(TimeUnit.SECONDS.toMillis(10));
+	}
+}
@@ -0,0 +1,87 @@
+package com.bptn.feedapp.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.repository.FeedMetaDataRepository;
+
+/*
+ * Answers "has this user already liked this feed" from memory. Every feed keeps
+ * a sorted set of userIds, loaded from the DB the first time the feed is
+ * checked and kept up to date as likes are saved. With the membership index
+ * disabled every check is a single indexed existence query.
+ */
+@Service
+public class LikeMembershipService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	FeedMetaDataRepository feedMetaDataRepository;
+
+	@Value("${feed.likes.membership.enabled}")
+	private boolean enabled;
+
+	@Value("${feed.likes.membership.max-feeds}")
+	private int maxFeeds;
+
+	private final Map<Integer, LikeSet> likes = new ConcurrentHashMap<>();
+
+	private LikeSet likeSet(int feedId) {
+
+		InMemoryState.makeRoom(this.likes, feedId, this.maxFeeds);
+
+		/*
+		 * Registered before it is loaded, so a like saved in between is not missed,
+		 * and loaded outside computeIfAbsent, which would block its map bin.
+		 */
+		LikeSet set = this.likes.computeIfAbsent(feedId, id -> new LikeSet());
+
+		synchronized (set) {
+			if (!set.loaded) {
+				set.addAll(this.feedMetaDataRepository.findLikeUserIds(feedId));
+				set.loaded = true;
+			}
+		}
+
+		return set;
+	}
+
+	public boolean hasLiked(int feedId, int userId) {
+
+		if (!this.enabled) {
+			return this.feedMetaDataRepository.existsByFeedFeedIdAndUserUserIdAndIsLikeTrue(feedId, userId);
+		}
+
+		LikeSet set = this.likeSet(feedId);
+
+		synchronized (set) {
+			return set.contains(userId);
+		}
+	}
+
+	/* Records a like once it was saved */
+	public void addLike(int feedId, int userId) {
+
+		if (!this.enabled) {
+			return;
+		}
+
+		LikeSet set = this.likes.get(feedId);
+
+		if (set != null) {
+			synchronized (set) {
+				set.add(userId);
+			}
+		}
+	}
+
+	public void discard(int feedId) {
+		this.likes.remove(feedId);
+	}
+}
@@ -0,0 +1,65 @@
+package com.bptn.feedapp.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/*
+ * The userIds that liked one feed, ascending in a growable int[]. Four bytes
+ * per like whatever the userIds are, where a bitmap indexed by userId costs a
+ * bit for every smaller userId too. Lookups are a binary search; likes mostly
+ * come from recent, higher userIds, so inserts are mostly appends. Not thread
+ * safe, callers synchronize on the set.
+ */
+public class LikeSet {
+
+	private int[] userIds = new int[4];
+	private int size;
+
+	/* False until the set was filled from the FeedMetaData table */
+	boolean loaded;
+
+	public boolean contains(int userId) {
+		return Arrays.binarySearch(this.userIds, 0, this.size, userId) >= 0;
+	}
+
+	public void add(int userId) {
+		int i = Arrays.binarySearch(this.userIds, 0, this.size, userId);
+
+		if (i >= 0) {
+			return;
+		}
+
+		i = -i - 1;
+
+		if (this.size == this.userIds.length) {
+			this.userIds = Arrays.copyOf(this.userIds, this.size + (this.size >> 1) + 1);
+		}
+
+		System.arraycopy(this.userIds, i, this.userIds, i + 1, this.size - i);
+		this.userIds[i] = userId;
+		this.size++;
+	}
+
+	/* Merges a whole feed's likes at once instead of inserting them one by one */
+	public void addAll(Collection<Integer> userIds) {
+		int[] added = userIds.stream().mapToInt(Integer::intValue).sorted().toArray();
+		int[] merged = new int[this.size + added.length];
+		int i = 0, j = 0, n = 0;
+
+		while (i < this.size || j < added.length) {
+			int next = j == added.length || i < this.size && this.userIds[i] <= added[j] ? this.userIds[i++]
+					: added[j++];
+
+			if (n == 0 || merged[n - 1] != next) {
+				merged[n++] = next;
+			}
+		}
+
+		this.userIds = merged;
+		this.size = n;
+	}
+
+	public int size() {
+		return this.size;
+	}
+}
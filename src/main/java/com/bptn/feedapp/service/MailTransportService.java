@@ -0,0 +1,227 @@
+package com.bptn.feedapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+/*
+ * Sends emails over SMTP sessions that stay open between messages. Every sender
+ * thread owns one connection, drains up to a batch of queued messages and sends
+ * them back to back over it, so a burst of emails pays for one TCP and TLS
+ * handshake instead of one per message. Idle connections are closed after the
+ * keep-alive, dropped ones are reopened once.
+ */
+@Service
+public class MailTransportService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	JavaMailSenderImpl mailSender;
+
+	@Value("${email.transport.connections}")
+	private int connections;
+
+	@Value("${email.transport.queue-capacity}")
+	private int queueCapacity;
+
+	@Value("${email.transport.batch-size}")
+	private int batchSize;
+
+	@Value("${email.transport.keep-alive}")
+	private long keepAlive;
+
+	record Outgoing(MimeMessage message, CompletableFuture<Void> result) {
+	}
+
+	private BlockingQueue<Outgoing> queue;
+
+	private final List<Thread> senders = new ArrayList<>();
+
+	private volatile boolean running;
+
+	private final LongAdder sessionsOpened = new LongAdder();
+	private final LongAdder batchesSent = new LongAdder();
+	private final LongAdder messagesSent = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	@PostConstruct
+	public void start() {
+
+		this.queue = new ArrayBlockingQueue<>(this.queueCapacity);
+		this.running = true;
+
+		for (int i = 0; i < this.connections; i++) {
+			Thread sender = new Thread(this::run, "smtp-" + i);
+			sender.setDaemon(true);
+			sender.start();
+			this.senders.add(sender);
+		}
+	}
+
+	/* Queues a message, waiting for room when the senders fall behind */
+	public CompletableFuture<Void> send(MimeMessage message) {
+
+		Outgoing outgoing = new Outgoing(message, new CompletableFuture<>());
+
+		try {
+			this.queue.put(outgoing);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			outgoing.result().completeExceptionally(ex);
+		}
+
+		return outgoing.result();
+	}
+
+	private void run() {
+
+		List<Outgoing> batch = new ArrayList<>(this.batchSize);
+		Transport transport = null;
+		long lastUsed = System.currentTimeMillis();
+
+		while (this.running || !this.queue.isEmpty()) {
+			try {
+				Outgoing first = this.queue.poll(Math.min(this.keepAlive, 500), TimeUnit.MILLISECONDS);
+
+				if (first == null) {
+					if (transport != null && System.currentTimeMillis() - lastUsed > this.keepAlive) {
+						transport = this.close(transport);
+					}
+					continue;
+				}
+
+				batch.add(first);
+				this.queue.drainTo(batch, this.batchSize - 1);
+
+				transport = this.send(transport, batch);
+				lastUsed = System.currentTimeMillis();
+
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				this.running = false;
+			} finally {
+				batch.clear();
+			}
+		}
+
+		this.close(transport);
+	}
+
+	private Transport send(Transport transport, List<Outgoing> batch) {
+
+		for (Outgoing outgoing : batch) {
+			MimeMessage message = outgoing.message();
+
+			try {
+				transport = this.connect(transport);
+				message.saveChanges();
+				transport.sendMessage(message, message.getAllRecipients());
+				outgoing.result().complete(null);
+				this.messagesSent.increment();
+				continue;
+
+			} catch (SendFailedException ex) {
+				/* Rejected recipients, the connection itself is fine */
+				this.failures.increment();
+				outgoing.result().completeExceptionally(ex);
+				continue;
+
+			} catch (MessagingException ex) {
+				this.logger.debug("SMTP Session Failed, reconnecting, Reason: {}", ex.getMessage());
+				transport = this.close(transport);
+			}
+
+			/* The server may have closed an idle session, retry once on a new one */
+			try {
+				transport = this.connect(transport);
+				transport.sendMessage(message, message.getAllRecipients());
+				outgoing.result().complete(null);
+				this.messagesSent.increment();
+			} catch (MessagingException ex) {
+				transport = this.close(transport);
+				this.failures.increment();
+				outgoing.result().completeExceptionally(ex);
+			}
+		}
+
+		this.batchesSent.increment();
+
+		return transport;
+	}
+
+	private Transport connect(Transport transport) throws MessagingException {
+
+		if (transport != null) {
+			return transport;
+		}
+
+		Transport connected = this.mailSender.getSession().getTransport(this.mailSender.getProtocol());
+		connected.connect(this.mailSender.getHost(), this.mailSender.getPort(), this.mailSender.getUsername(),
+				this.mailSender.getPassword());
+
+		this.sessionsOpened.increment();
+
+		return connected;
+	}
+
+	private Transport close(Transport transport) {
+
+		if (transport != null) {
+			try {
+				transport.close();
+			} catch (MessagingException ex) {
+				this.logger.debug("Error while Closing SMTP Session, Reason: {}", ex.getMessage());
+			}
+		}
+
+		return null;
+	}
+
+	public int getQueueSize() {
+		return this.queue.size();
+	}
+
+	public long getSessionsOpened() {
+		return this.sessionsOpened.sum();
+	}
+
+	public long getBatchesSent() {
+		return this.batchesSent.sum();
+	}
+
+	public long getMessagesSent() {
+		return this.messagesSent.sum();
+	}
+
+	public long getFailures() {
+		return this.failures.sum();
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+
+		this.running = false;
+
+		for (Thread sender : this.senders) {
+			sender.join(TimeUnit.SECONDS.toMillis(10));
+		}
+	}
+}
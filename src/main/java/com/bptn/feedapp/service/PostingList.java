@@ -0,0 +1,213 @@
+package com.bptn.feedapp.service;
+
+import java.util.Arrays;
+
+/*
+ * The feeds containing one term, in feedId order, each stored as the varint of
+ * the gap to the previous feedId followed by the varint of the term's count in
+ * the feed. Feeds are created in feedId order, so gaps are small and most
+ * postings take two or three bytes. Every SKIP_INTERVAL postings a skip entry
+ * records the position, so intersections jump over blocks instead of decoding
+ * them. Not thread safe, InvertedIndex guards it.
+ */
+public class PostingList {
+
+	static final int SKIP_INTERVAL = 128;
+
+	private byte[] bytes = new byte[16];
+	private int length;
+	private int count;
+	private int last;
+
+	/* Skip entry k is the feedId before posting (k + 1) * SKIP_INTERVAL and that posting's offset */
+	private int[] skipIds = new int[0];
+	private int[] skipOffsets = new int[0];
+	private int skipCount;
+
+	public int size() {
+		return this.count;
+	}
+
+	/* Bytes held, for statistics */
+	public int byteSize() {
+		return this.bytes.length + 8 * this.skipIds.length;
+	}
+
+	private void writeVarint(int value) {
+
+		if (this.length + 5 > this.bytes.length) {
+			this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.length + 5));
+		}
+
+		while ((value & ~0x7F) != 0) {
+			this.bytes[this.length++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		this.bytes[this.length++] = (byte) value;
+	}
+
+	/* Adds a feed, false when it is already in the list */
+	public boolean add(int feedId, int frequency) {
+
+		if (this.count > 0 && feedId <= this.last) {
+			return this.insert(feedId, frequency);
+		}
+
+		if (this.count > 0 && this.count % SKIP_INTERVAL == 0) {
+			if (this.skipCount == this.skipIds.length) {
+				this.skipIds = Arrays.copyOf(this.skipIds, Math.max(4, this.skipCount * 2));
+				this.skipOffsets = Arrays.copyOf(this.skipOffsets, this.skipIds.length);
+			}
+			this.skipIds[this.skipCount] = this.last;
+			this.skipOffsets[this.skipCount++] = this.length;
+		}
+
+		this.writeVarint(feedId - this.last);
+		this.writeVarint(frequency);
+		this.last = feedId;
+		this.count++;
+
+		return true;
+	}
+
+	/* The rare feed committed out of order, the list is re-encoded */
+	private boolean insert(int feedId, int frequency) {
+		int[] feedIds = new int[this.count + 1];
+		int[] frequencies = new int[this.count + 1];
+		int n = 0;
+		boolean inserted = false;
+
+		for (Cursor cursor = this.cursor(); cursor.next();) {
+			if (!inserted && cursor.feedId() >= feedId) {
+				if (cursor.feedId() == feedId) {
+					return false;
+				}
+				feedIds[n] = feedId;
+				frequencies[n++] = frequency;
+				inserted = true;
+			}
+			feedIds[n] = cursor.feedId();
+			frequencies[n++] = cursor.frequency();
+		}
+
+		this.rebuild(feedIds, frequencies, n);
+		return true;
+	}
+
+	/* False when the feed is not in the list */
+	public boolean remove(int feedId) {
+		int[] feedIds = new int[this.count];
+		int[] frequencies = new int[this.count];
+		int n = 0;
+
+		for (Cursor cursor = this.cursor(); cursor.next();) {
+			if (cursor.feedId() != feedId) {
+				feedIds[n] = cursor.feedId();
+				frequencies[n++] = cursor.frequency();
+			}
+		}
+
+		if (n == this.count) {
+			return false;
+		}
+
+		this.rebuild(feedIds, frequencies, n);
+		return true;
+	}
+
+	private void rebuild(int[] feedIds, int[] frequencies, int n) {
+		this.bytes = new byte[Math.max(16, this.length + 5)];
+		this.length = 0;
+		this.count = 0;
+		this.last = 0;
+		this.skipCount = 0;
+
+		for (int i = 0; i < n; i++) {
+			this.add(feedIds[i], frequencies[i]);
+		}
+	}
+
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/* Reads the list forward, starting before the first posting */
+	public class Cursor {
+
+		private int offset;
+		private int index;
+		private int feedId;
+		private int frequency;
+
+		public int feedId() {
+			return this.feedId;
+		}
+
+		public int frequency() {
+			return this.frequency;
+		}
+
+		private int readVarint() {
+			int value = 0;
+			int shift = 0;
+			byte b;
+
+			do {
+				b = PostingList.this.bytes[this.offset++];
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+
+			return value;
+		}
+
+		public boolean next() {
+
+			if (this.index == PostingList.this.count) {
+				return false;
+			}
+
+			this.feedId += this.readVarint();
+			this.frequency = this.readVarint();
+			this.index++;
+
+			return true;
+		}
+
+		/* Moves to the first posting with a feedId of at least target, false when there is none */
+		public boolean advance(int target) {
+
+			if (this.index > 0 && this.feedId >= target) {
+				return true;
+			}
+
+			/* The last skip entry before the target, if it lies ahead */
+			int low = 0;
+			int high = PostingList.this.skipCount - 1;
+
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+
+				if (PostingList.this.skipIds[mid] < target) {
+					low = mid + 1;
+				} else {
+					high = mid - 1;
+				}
+			}
+
+			if (high >= 0 && (high + 1) * SKIP_INTERVAL > this.index) {
+				this.offset = PostingList.this.skipOffsets[high];
+				this.feedId = PostingList.this.skipIds[high];
+				this.index = (high + 1) * SKIP_INTERVAL;
+			}
+
+			while (this.next()) {
+				if (this.feedId >= target) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package com.bptn.feedapp.service;
+
+import java.util.Arrays;
+
+/*
+ * The newest feedIds of all users with their authors, ascending by feedId in
+ * a fixed size circular buffer, the same layout as TimelineRing. Every home
+ * timeline is this one list minus the viewer's own feeds, so the filtering
+ * happens at read time instead of writing a copy per user. Not thread safe,
+ * callers synchronize on it.
+ */
+public class RecentFeeds {
+
+	private final int[] feedIds;
+	private final int[] authorIds;
+	private int head;
+	private int size;
+
+	/* False until it was filled from the Feed table */
+	boolean loaded;
+
+	public RecentFeeds(int capacity) {
+		this.feedIds = new int[capacity];
+		this.authorIds = new int[capacity];
+	}
+
+	private int slot(int i) {
+		return (this.head + i) % this.feedIds.length;
+	}
+
+	private void move(int from, int to) {
+		this.feedIds[this.slot(to)] = this.feedIds[this.slot(from)];
+		this.authorIds[this.slot(to)] = this.authorIds[this.slot(from)];
+	}
+
+	private void set(int i, int feedId, int authorId) {
+		this.feedIds[this.slot(i)] = feedId;
+		this.authorIds[this.slot(i)] = authorId;
+	}
+
+	/* Index of the feedId, or -(insertion point) - 1 */
+	private int search(int feedId) {
+		int low = 0;
+		int high = this.size - 1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int value = this.feedIds[this.slot(mid)];
+
+			if (value < feedId) {
+				low = mid + 1;
+			} else if (value > feedId) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+
+		return -(low + 1);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isFull() {
+		return this.size == this.feedIds.length;
+	}
+
+	/* The oldest feedId held, or Integer.MAX_VALUE when empty */
+	public int oldest() {
+		return this.size == 0 ? Integer.MAX_VALUE : this.feedIds[this.slot(0)];
+	}
+
+	public void add(int feedId, int authorId) {
+
+		/* The common case, a new feed */
+		if (this.size == 0 || feedId > this.feedIds[this.slot(this.size - 1)]) {
+			if (this.isFull()) {
+				this.head = (this.head + 1) % this.feedIds.length;
+				this.size--;
+			}
+			this.set(this.size++, feedId, authorId);
+			return;
+		}
+
+		int index = this.search(feedId);
+
+		if (index >= 0) {
+			return;
+		}
+
+		int position = -index - 1;
+
+		if (this.isFull()) {
+			/* Older than everything held, outside the window */
+			if (position == 0) {
+				return;
+			}
+
+			/* Drop the oldest and shift the older entries down by one */
+			for (int i = 0; i < position - 1; i++) {
+				this.move(i + 1, i);
+			}
+			this.set(position - 1, feedId, authorId);
+			return;
+		}
+
+		for (int i = this.size; i > position; i--) {
+			this.move(i - 1, i);
+		}
+		this.set(position, feedId, authorId);
+		this.size++;
+	}
+
+	public void remove(int feedId) {
+		int index = this.search(feedId);
+
+		if (index < 0) {
+			return;
+		}
+
+		for (int i = index; i < this.size - 1; i++) {
+			this.move(i + 1, i);
+		}
+		this.size--;
+	}
+
+	/* Up to limit feedIds older than before and not by the viewer, newest first */
+	public int[] page(int viewerId, int before, int limit) {
+		int index = this.search(before);
+		int end = index >= 0 ? index : -index - 1;
+
+		int[] page = new int[limit];
+		int count = 0;
+
+		for (int i = end - 1; i >= 0 && count < limit; i--) {
+			if (this.authorIds[this.slot(i)] != viewerId) {
+				page[count++] = this.feedIds[this.slot(i)];
+			}
+		}
+
+		return count == limit ? page : Arrays.copyOf(page, count);
+	}
+}
@@ -0,0 +1,159 @@
+package com.bptn.feedapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import com.bptn.feedapp.exception.domain.InvalidRefreshTokenException;
+import com.bptn.feedapp.jdbc.SequenceIdAllocator;
+import com.bptn.feedapp.jpa.RefreshToken;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.repository.RefreshTokenRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Long lived refresh tokens, so clients renew their JWT without sending the
+ * password again. A token is 32 random bytes; only its HMAC is stored, so
+ * checking one costs a hash and an indexed lookup instead of a BCrypt check.
+ *
+ * Every refresh rotates the token. A token used a second time means it was
+ * copied, and the whole family, every token descending from the same login, is
+ * revoked.
+ */
+@Service
+public class RefreshTokenService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	public static final String REFRESH_TOKEN_HEADER = "Refresh-Token";
+
+	private static final String INVALID = "Refresh token is invalid or has expired";
+
+	@Autowired
+	RefreshTokenRepository refreshTokenRepository;
+
+	@Autowired
+	SequenceIdAllocator idAllocator;
+
+	@Autowired
+	ResourceProvider provider;
+
+	@Value("${jwt.refresh.expiration}")
+	private long expiration;
+
+	private final SecureRandom random = new SecureRandom();
+
+	private SecretKeySpec key;
+
+	public record Rotated(Integer userId, String refreshToken) {
+	}
+
+	@PostConstruct
+	public void init() {
+		this.key = new SecretKeySpec(this.provider.getJwtSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+	}
+
+	private String digest(String token) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(this.key);
+
+			return Base64.getUrlEncoder().withoutPadding()
+					.encodeToString(mac.doFinal(token.getBytes(StandardCharsets.US_ASCII)));
+		} catch (GeneralSecurityException ex) {
+			throw new IllegalStateException("HmacSHA256 is not available", ex);
+		}
+	}
+
+	private String save(Integer userId, Integer familyId, Instant now) {
+		byte[] bytes = new byte[32];
+		this.random.nextBytes(bytes);
+
+		String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+		RefreshToken refreshToken = new RefreshToken();
+
+		refreshToken.setUserId(userId);
+		refreshToken.setFamilyId(familyId);
+		refreshToken.setTokenDigest(this.digest(token));
+		refreshToken.setCreatedOn(Timestamp.from(now));
+		refreshToken.setExpiresOn(Timestamp.from(now.plusMillis(this.expiration)));
+
+		this.refreshTokenRepository.save(refreshToken);
+
+		return token;
+	}
+
+	/* Starts a new family, on login */
+	@Transactional
+	public String issue(Integer userId) {
+		Integer familyId = this.idAllocator.nextId(SequenceIdAllocator.REFRESH_TOKEN_SEQUENCE);
+
+		return this.save(userId, familyId, Instant.now());
+	}
+
+	/*
+	 * Replaces the token with a new one. The revocation of a replayed token's
+	 * family must be committed even though the refresh fails.
+	 */
+	@Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+	public Rotated rotate(String token) {
+
+		if (!StringUtils.hasText(token)) {
+			throw new InvalidRefreshTokenException(INVALID);
+		}
+
+		RefreshToken current = this.refreshTokenRepository.findByTokenDigest(this.digest(token))
+				.orElseThrow(() -> new InvalidRefreshTokenException(INVALID));
+
+		Instant now = Instant.now();
+
+		if (current.getUsedOn() != null) {
+			logger.debug("Refresh token reused, revoking family {} of user {}", current.getFamilyId(),
+					current.getUserId());
+
+			this.refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+
+			throw new InvalidRefreshTokenException(INVALID);
+		}
+
+		if (current.getExpiresOn().toInstant().isBefore(now)) {
+			throw new InvalidRefreshTokenException(INVALID);
+		}
+
+		current.setUsedOn(Timestamp.from(now));
+
+		return new Rotated(current.getUserId(), this.save(current.getUserId(), current.getFamilyId(), now));
+	}
+
+	/* Logs the user out everywhere, after a password change */
+	@Transactional
+	public void revokeAll(Integer userId) {
+		this.refreshTokenRepository.deleteByUserId(userId);
+	}
+
+	@Scheduled(fixedDelayString = "${jwt.refresh.cleanup-interval}")
+	@Transactional
+	public void deleteExpired() {
+		int deleted = this.refreshTokenRepository.deleteExpired(Timestamp.from(Instant.now()));
+
+		if (deleted > 0) {
+			logger.debug("Deleted {} expired refresh tokens", deleted);
+		}
+	}
+}
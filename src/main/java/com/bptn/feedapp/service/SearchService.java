@@ -0,0 +1,135 @@
+package com.bptn.feedapp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.jdbc.FeedDao;
+
+/*
+ * Full-text search over feed contents from an InvertedIndex held in memory.
+ * The index is built at startup from one streamed scan of the Feed table and
+ * then kept current as feeds are created and deleted. Until it is built,
+ * queries fall back to a LIKE scan and changes are held back, to be replayed
+ * on the built index.
+ */
+@Service
+public class SearchService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	FeedDao feedDao;
+
+	@Value("${feed.search.fetch-size}")
+	private int fetchSize;
+
+	@Value("${feed.search.max-query-terms}")
+	private int maxQueryTerms;
+
+	record Change(int feedId, String content, boolean delete) {
+
+		void applyTo(InvertedIndex index) {
+			if (this.delete) {
+				index.remove(this.feedId, this.content);
+			} else {
+				index.add(this.feedId, this.content);
+			}
+		}
+	}
+
+	private volatile InvertedIndex index;
+
+	/* Changes made while the index is built, guarded by itself */
+	private final List<Change> pending = new ArrayList<>();
+
+	/* Queries share the index, a change excludes them for the time of one update */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		long start = System.currentTimeMillis();
+
+		InvertedIndex index = new InvertedIndex();
+
+		this.feedDao.forEachContent(this.fetchSize, index::add);
+
+		synchronized (this.pending) {
+			this.pending.forEach(change -> change.applyTo(index));
+			this.pending.clear();
+			this.index = index;
+		}
+
+		logger.debug("Indexed {} feeds, {} terms, {} bytes of postings in {} ms", index.feedCount(),
+				index.termCount(), index.byteSize(), System.currentTimeMillis() - start);
+	}
+
+	private void apply(Change change) {
+		InvertedIndex index;
+
+		synchronized (this.pending) {
+			index = this.index;
+
+			if (index == null) {
+				this.pending.add(change);
+				return;
+			}
+		}
+
+		this.lock.writeLock().lock();
+		try {
+			change.applyTo(index);
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/* Applied once the current transaction commits */
+	private void submit(Change change) {
+
+		InMemoryState.afterCommit(() -> this.apply(change));
+	}
+
+	public void addFeed(int feedId, String content) {
+		this.submit(new Change(feedId, content, false));
+	}
+
+	public void removeFeed(int feedId, String content) {
+		this.submit(new Change(feedId, content, true));
+	}
+
+	/* The feedIds of the best matches for every term of the query, best first */
+	public List<Integer> search(String query, int limit) {
+		List<String> terms = InvertedIndex.queryTerms(query, this.maxQueryTerms);
+
+		if (terms.isEmpty()) {
+			return List.of();
+		}
+
+		InvertedIndex index = this.index;
+
+		if (index == null) {
+			return this.feedDao.findFeedIdsContaining(terms, limit);
+		}
+
+		int[] feedIds;
+
+		this.lock.readLock().lock();
+		try {
+			feedIds = index.search(terms, limit);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+
+		return Arrays.stream(feedIds).boxed().toList();
+	}
+}
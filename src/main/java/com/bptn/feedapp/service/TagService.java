@@ -0,0 +1,367 @@
+package com.bptn.feedapp.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.domain.CursorResponse;
+import com.bptn.feedapp.domain.MentionNotification;
+import com.bptn.feedapp.jdbc.TagDao;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Extracts #hashtags and @mentions from feeds after they are committed. Created
+ * and deleted feeds wait in a bounded queue and a single writer thread handles
+ * them in batches: one query resolves every mentioned username of the batch
+ * and the tags and mentions go out as JDBC batches. When the queue is full the
+ * caller handles its feed instead of dropping it.
+ *
+ * The newest feedIds of each tag are kept in a TimelineRing, so a page of a
+ * tag is a slice of memory; older pages are keyset queries on FeedTag.
+ */
+@Service
+public class TagService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	static final int MAX_TAG_LENGTH = 64;
+
+	@Autowired
+	TagDao tagDao;
+
+	@Autowired
+	CurrentUserService currentUserService;
+
+	@Value("${feed.tags.queue-capacity}")
+	private int queueCapacity;
+
+	@Value("${feed.tags.batch-size}")
+	private int batchSize;
+
+	@Value("${feed.tags.max-latency}")
+	private long maxLatency;
+
+	@Value("${feed.tags.capacity}")
+	private int capacity;
+
+	@Value("${feed.tags.max-tags}")
+	private int maxTags;
+
+	record Posted(int feedId, int authorId, String content, Timestamp createdOn, boolean delete) {
+	}
+
+	private final Map<String, TimelineRing> rings = new ConcurrentHashMap<>();
+
+	private BlockingQueue<Posted> queue;
+
+	private Thread writer;
+
+	private volatile boolean running;
+
+	@PostConstruct
+	public void start() {
+		this.queue = new ArrayBlockingQueue<>(this.queueCapacity);
+		this.running = true;
+
+		this.writer = new Thread(this::run, "tag-extract");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		this.running = false;
+		this.writer.join(TimeUnit.SECONDS.toMillis(10));
+	}
+
+	private static boolean isWordChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '_';
+	}
+
+	/*
+	 * The distinct lower cased words following the marker, where the marker
+	 * starts a word: "a@b.com" mentions no one. Mentions also take the dots and
+	 * dashes usernames may contain, but not at the end of a sentence.
+	 */
+	static Set<String> extract(String content, char marker) {
+		Set<String> words = new LinkedHashSet<>();
+
+		if (content == null) {
+			return words;
+		}
+
+		for (int i = content.indexOf(marker); i >= 0; i = content.indexOf(marker, i + 1)) {
+
+			if (i > 0 && isWordChar(content.charAt(i - 1))) {
+				continue;
+			}
+
+			int end = i + 1;
+
+			while (end < content.length() && (isWordChar(content.charAt(end))
+					|| marker == '@' && (content.charAt(end) == '.' || content.charAt(end) == '-'))) {
+				end++;
+			}
+
+			while (end > i + 1 && !isWordChar(content.charAt(end - 1))) {
+				end--;
+			}
+
+			if (end > i + 1 && end - i - 1 <= MAX_TAG_LENGTH) {
+				words.add(content.substring(i + 1, end).toLowerCase(Locale.ROOT));
+			}
+		}
+
+		return words;
+	}
+
+	/* "#Java" and "java" name the same tag, null when it cannot be one */
+	static String normalize(String tag) {
+		String word = tag.startsWith("#") ? tag.substring(1) : tag;
+
+		Set<String> tags = extract("#" + word, '#');
+
+		return tags.size() == 1 && tags.contains(word.toLowerCase(Locale.ROOT)) ? word.toLowerCase(Locale.ROOT) : null;
+	}
+
+	/* Queues the feed once the current transaction commits */
+	private void submit(Posted posted) {
+		InMemoryState.afterCommit(() -> {
+			if (!this.queue.offer(posted)) {
+				logger.debug("Tag Queue Full, extracting on the caller thread");
+				this.write(List.of(posted));
+			}
+		});
+	}
+
+	public void addFeed(int feedId, int authorId, String content, Timestamp createdOn) {
+		this.submit(new Posted(feedId, authorId, content, createdOn, false));
+	}
+
+	public void removeFeed(int feedId, String content) {
+		this.submit(new Posted(feedId, 0, content, null, true));
+	}
+
+	private void run() {
+
+		List<Posted> batch = new ArrayList<>(this.batchSize);
+
+		while (this.running || !this.queue.isEmpty()) {
+			try {
+				Posted first = this.queue.poll(this.maxLatency, TimeUnit.MILLISECONDS);
+
+				if (first == null) {
+					continue;
+				}
+
+				batch.add(first);
+
+				/* Wait at most maxLatency after the first feed for the batch to fill up */
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.maxLatency);
+
+				while (batch.size() < this.batchSize) {
+					Posted next = this.queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+
+				this.write(batch);
+
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				this.running = false;
+			} catch (RuntimeException ex) {
+				this.logger.error("Error while Extracting Tags, batch: " + batch.size(), ex);
+			} finally {
+				batch.clear();
+			}
+		}
+
+		/* Write whatever is left after a shutdown */
+		this.queue.drainTo(batch);
+
+		if (!batch.isEmpty()) {
+			this.write(batch);
+		}
+	}
+
+	/* Deletes are applied in order, between the runs of created feeds around them */
+	private void write(List<Posted> batch) {
+		List<Posted> created = new ArrayList<>();
+
+		for (Posted posted : batch) {
+			if (posted.delete()) {
+				this.insert(created);
+				created.clear();
+				this.delete(posted);
+			} else {
+				created.add(posted);
+			}
+		}
+
+		this.insert(created);
+	}
+
+	private void insert(List<Posted> created) {
+
+		if (created.isEmpty()) {
+			return;
+		}
+
+		List<Set<String>> tags = new ArrayList<>(created.size());
+		List<Set<String>> usernames = new ArrayList<>(created.size());
+		Set<String> mentioned = new HashSet<>();
+
+		for (Posted posted : created) {
+			tags.add(extract(posted.content(), '#'));
+			usernames.add(extract(posted.content(), '@'));
+			mentioned.addAll(usernames.get(usernames.size() - 1));
+		}
+
+		/* One query for every username mentioned in the batch, unknown ones are ignored */
+		Map<String, Integer> userIds = mentioned.isEmpty() ? Map.of() : this.tagDao.findUserIds(mentioned);
+
+		List<List<Object[]>> tagRows = new ArrayList<>(created.size());
+		List<List<Object[]>> mentionRows = new ArrayList<>(created.size());
+
+		for (int i = 0; i < created.size(); i++) {
+			Posted posted = created.get(i);
+
+			tagRows.add(tags.get(i).stream().map(tag -> new Object[] { tag, posted.feedId() }).toList());
+
+			mentionRows.add(usernames.get(i).stream().map(userIds::get)
+					.filter(userId -> userId != null && userId != posted.authorId())
+					.map(userId -> new Object[] { userId, posted.feedId(), posted.authorId(), posted.createdOn() })
+					.toList());
+		}
+
+		boolean[] written = new boolean[created.size()];
+
+		try {
+			this.tagDao.insert(tagRows.stream().flatMap(List::stream).toList(),
+					mentionRows.stream().flatMap(List::stream).toList());
+			Arrays.fill(written, true);
+		} catch (Exception ex) {
+
+			/* A feed deleted before its tags were written fails the batch, so retry feed by feed */
+			this.logger.debug("Tag Batch Failed, retrying feed by feed, Reason: {}", ex.getMessage());
+
+			for (int i = 0; i < created.size(); i++) {
+				try {
+					this.tagDao.insert(tagRows.get(i), mentionRows.get(i));
+					written[i] = true;
+				} catch (Exception feedEx) {
+					this.logger.debug("Tags not written, feedId: {}, Reason: {}", created.get(i).feedId(),
+							feedEx.getMessage());
+				}
+			}
+		}
+
+		for (int i = 0; i < created.size(); i++) {
+			if (written[i]) {
+				for (String tag : tags.get(i)) {
+					this.addToRing(tag, created.get(i).feedId());
+				}
+			}
+		}
+
+		this.logger.debug("Tags Written, batch: {}", created.size());
+	}
+
+	private void delete(Posted posted) {
+		this.tagDao.deleteFeed(posted.feedId());
+
+		/*
+		 * A full ring missing a feed would no longer read the older ones from the
+		 * table, so the ring is dropped and reloaded, like the author rings.
+		 */
+		for (String tag : extract(posted.content(), '#')) {
+			this.rings.remove(tag);
+		}
+	}
+
+	/* Only rings already in memory are updated, the others read the table when loaded */
+	private void addToRing(String tag, int feedId) {
+		TimelineRing ring = this.rings.get(tag);
+
+		if (ring != null) {
+			synchronized (ring) {
+				ring.add(feedId);
+			}
+		}
+	}
+
+	private TimelineRing ring(String tag) {
+
+		InMemoryState.makeRoom(this.rings, tag, this.maxTags);
+
+		/* Registered before it is loaded, so no feed written in between is missed */
+		TimelineRing ring = this.rings.computeIfAbsent(tag, t -> new TimelineRing(this.capacity));
+
+		synchronized (ring) {
+			if (!ring.loaded) {
+				this.tagDao.findFeedIds(tag, Integer.MAX_VALUE, this.capacity).forEach(ring::add);
+				ring.loaded = true;
+			}
+		}
+
+		return ring;
+	}
+
+	/* Up to limit feedIds with the tag older than before, newest first */
+	public List<Integer> page(String tag, int before, int limit) {
+		String key = normalize(tag);
+
+		if (key == null) {
+			return List.of();
+		}
+
+		TimelineRing ring = this.ring(key);
+		List<Integer> feedIds = new ArrayList<>(limit);
+		int oldest;
+
+		synchronized (ring) {
+			for (int feedId : ring.page(before, limit)) {
+				feedIds.add(feedId);
+			}
+			oldest = ring.oldest();
+		}
+
+		/* Older than the ring holds, read from the FeedTag table */
+		if (feedIds.size() < limit && ring.isFull()) {
+			feedIds.addAll(this.tagDao.findFeedIds(key, Math.min(before, oldest), limit - feedIds.size()));
+		}
+
+		return feedIds;
+	}
+
+	/* The feeds the signed in user was mentioned in older than the cursor, newest first */
+	public CursorResponse<MentionNotification> getMentions(String before, int limit) {
+		int pageSize = CursorResponse.clampLimit(limit);
+
+		List<MentionNotification> mentions = this.tagDao.findMentions(this.currentUserService.getUserId(),
+				CursorResponse.decode(before, Integer.MAX_VALUE), pageSize + 1);
+
+		return CursorResponse.of(mentions, pageSize, MentionNotification::getFeedId);
+	}
+}
@@ -0,0 +1,139 @@
+package com.bptn.feedapp.service;
+
+import java.util.Arrays;
+
+/*
+ * The newest feedIds of one timeline, ascending, in a fixed size circular
+ * buffer. Appending a feedId newer than all others is O(1) and drops the
+ * oldest one when full; the rare out-of-order insert and removals shift the
+ * entries after it. Not thread safe, callers synchronize on the ring.
+ */
+public class TimelineRing {
+
+	private final int[] ids;
+	private int head;
+	private int size;
+
+	/* False until the ring was filled from the backing table */
+	boolean loaded;
+
+	public TimelineRing(int capacity) {
+		this.ids = new int[capacity];
+	}
+
+	private int at(int i) {
+		return this.ids[(this.head + i) % this.ids.length];
+	}
+
+	private void set(int i, int feedId) {
+		this.ids[(this.head + i) % this.ids.length] = feedId;
+	}
+
+	/* Index of the feedId, or -(insertion point) - 1 */
+	private int search(int feedId) {
+		int low = 0;
+		int high = this.size - 1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int value = this.at(mid);
+
+			if (value < feedId) {
+				low = mid + 1;
+			} else if (value > feedId) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+
+		return -(low + 1);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isFull() {
+		return this.size == this.ids.length;
+	}
+
+	/* The oldest feedId held, or Integer.MAX_VALUE when empty */
+	public int oldest() {
+		return this.size == 0 ? Integer.MAX_VALUE : this.at(0);
+	}
+
+	public void add(int feedId) {
+
+		/* The common case, a new feed */
+		if (this.size == 0 || feedId > this.at(this.size - 1)) {
+			if (this.isFull()) {
+				this.head = (this.head + 1) % this.ids.length;
+				this.size--;
+			}
+			this.set(this.size++, feedId);
+			return;
+		}
+
+		int index = this.search(feedId);
+
+		if (index >= 0) {
+			return;
+		}
+
+		int position = -index - 1;
+
+		if (this.isFull()) {
+			/* Older than everything held, outside the window */
+			if (position == 0) {
+				return;
+			}
+
+			/* Drop the oldest and shift the older entries down by one */
+			for (int i = 0; i < position - 1; i++) {
+				this.set(i, this.at(i + 1));
+			}
+			this.set(position - 1, feedId);
+			return;
+		}
+
+		for (int i = this.size; i > position; i--) {
+			this.set(i, this.at(i - 1));
+		}
+		this.set(position, feedId);
+		this.size++;
+	}
+
+	public void remove(int feedId) {
+		int index = this.search(feedId);
+
+		if (index < 0) {
+			return;
+		}
+
+		for (int i = index; i < this.size - 1; i++) {
+			this.set(i, this.at(i + 1));
+		}
+		this.size--;
+	}
+
+	/* Up to limit feedIds older than before, newest first */
+	public int[] page(int before, int limit) {
+		int index = this.search(before);
+		int end = index >= 0 ? index : -index - 1;
+
+		int count = Math.min(limit, end);
+		int[] page = new int[count];
+
+		for (int i = 0; i < count; i++) {
+			page[i] = this.at(end - 1 - i);
+		}
+
+		return page;
+	}
+
+	@Override
+	public String toString() {
+		return "TimelineRing [size=" + size + ", ids=" + Arrays.toString(this.page(Integer.MAX_VALUE, this.size)) + "]";
+	}
+}
@@ -0,0 +1,85 @@
+package com.bptn.feedapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.jdbc.TimelineDao;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Home timelines from one list of the newest feeds of all users. Every home
+ * timeline is the same feeds minus the viewer's own, so nothing is written per
+ * user: created feeds are appended once they commit and a page filters out
+ * the viewer's feeds while reading. Reading a page is a slice of memory plus
+ * one batched lookup of the feeds, pages past the list fall back to a keyset
+ * query on the Feed table.
+ */
+@Service
+public class TimelineService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	TimelineDao timelineDao;
+
+	@Value("${feed.timeline.capacity}")
+	private int capacity;
+
+	private RecentFeeds recent;
+
+	@PostConstruct
+	public void init() {
+		this.recent = new RecentFeeds(this.capacity);
+	}
+
+	public void addFeed(int feedId, int authorId) {
+		InMemoryState.afterCommit(() -> {
+			synchronized (this.recent) {
+				this.recent.add(feedId, authorId);
+			}
+		});
+	}
+
+	public void removeFeed(int feedId) {
+		InMemoryState.afterCommit(() -> {
+			synchronized (this.recent) {
+				this.recent.remove(feedId);
+			}
+		});
+	}
+
+	/* Up to limit feedIds of the user's timeline older than before, newest first */
+	public List<Integer> page(int userId, int before, int limit) {
+		List<Integer> feedIds = new ArrayList<>(limit);
+		int oldest;
+
+		synchronized (this.recent) {
+
+			/* Loaded on first use, feeds added before are kept, the load skips them */
+			if (!this.recent.loaded) {
+				this.timelineDao.forEachNewestFeed(this.capacity, this.recent::add);
+				this.recent.loaded = true;
+			}
+
+			for (int feedId : this.recent.page(userId, before, limit)) {
+				feedIds.add(feedId);
+			}
+			oldest = this.recent.oldest();
+		}
+
+		/* Older than the list holds, read from the Feed table */
+		if (feedIds.size() < limit) {
+			int from = Math.min(before, oldest);
+
+			feedIds.addAll(this.timelineDao.findOtherUsersFeedIds(userId, from, limit - feedIds.size()));
+		}
+
+		return feedIds;
+	}
+}
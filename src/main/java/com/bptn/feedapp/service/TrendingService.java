@@ -0,0 +1,227 @@
+package com.bptn.feedapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.domain.CursorResponse;
+import com.bptn.feedapp.domain.TrendingFeed;
+import com.bptn.feedapp.exception.domain.FeedNotFoundException;
+import com.bptn.feedapp.jdbc.FeedDao;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Trending feeds, ranked by likes and comments that lose half their weight
+ * every half-life. Scores use forward decay: an event at time t adds
+ * weight * e^(lambda * t) instead of decaying every score as time passes, so a
+ * like touches only its own feed and scores never need a rescan. All scores
+ * shrink by the same factor over time, the ranking stays valid, and the
+ * current score is only computed when shown. Scores are kept as logarithms so
+ * the growing exponent never overflows.
+ *
+ * Since a score only ever grows, a feed can only enter the top list when it
+ * gets a like or comment, and then only by pushing out the lowest one: the
+ * bounded top list is exact for the feeds that have a score in memory.
+ */
+@Service
+public class TrendingService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	FeedDao feedDao;
+
+	@Value("${feed.trending.size}")
+	private int size;
+
+	@Value("${feed.trending.half-life}")
+	private long halfLife;
+
+	@Value("${feed.trending.like-weight}")
+	private double likeWeight;
+
+	@Value("${feed.trending.comment-weight}")
+	private double commentWeight;
+
+	@Value("${feed.trending.max-feeds}")
+	private int maxFeeds;
+
+	@Value("${feed.trending.rebuild-window}")
+	private long rebuildWindow;
+
+	@Value("${feed.trending.fetch-size}")
+	private int fetchSize;
+
+	record Ranked(int feedId, double logScore) {
+	}
+
+	private static final Comparator<Ranked> BY_SCORE = Comparator.comparingDouble(Ranked::logScore).reversed()
+			.thenComparingInt(Ranked::feedId);
+
+	/* Both guarded by this */
+	private final Map<Integer, Double> logScores = new HashMap<>();
+	private final TreeSet<Ranked> top = new TreeSet<>(BY_SCORE);
+	private final Map<Integer, Ranked> members = new HashMap<>();
+
+	/* The top list as of the last change, rebuilt on the next read after one */
+	private volatile Ranked[] snapshot = new Ranked[0];
+	private volatile boolean changed;
+
+	private final AtomicLong events = new AtomicLong();
+
+	/* Decay rate per millisecond, and the time scores are relative to */
+	private double lambda;
+	private long epoch;
+
+	@PostConstruct
+	public void init() {
+		this.lambda = Math.log(2) / this.halfLife;
+		this.epoch = System.currentTimeMillis();
+	}
+
+	/* Replays the recent likes and comments, the ones that still weigh in */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		long start = System.currentTimeMillis();
+		long before = this.events.get();
+
+		this.feedDao.forEachMetaData(new Timestamp(start - this.rebuildWindow), new Timestamp(start), this.fetchSize,
+				this::record);
+
+		logger.debug("Replayed {} likes and comments in {} ms", this.events.get() - before,
+				System.currentTimeMillis() - start);
+	}
+
+	private static double logAddExp(double a, double b) {
+		double max = Math.max(a, b);
+
+		return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+	}
+
+	public void record(int feedId, boolean isLike, long createdOn) {
+		double weight = isLike ? this.likeWeight : this.commentWeight;
+
+		double add = Math.log(weight) + this.lambda * (createdOn - this.epoch);
+
+		this.events.incrementAndGet();
+
+		synchronized (this) {
+			Double old = this.logScores.get(feedId);
+
+			/* Keep the number of scores bounded, never dropping one in the top list */
+			if (old == null && this.logScores.size() >= this.maxFeeds) {
+				Iterator<Integer> it = this.logScores.keySet().iterator();
+				while (it.hasNext()) {
+					if (!this.members.containsKey(it.next())) {
+						it.remove();
+						break;
+					}
+				}
+			}
+
+			double logScore = old == null ? add : logAddExp(old, add);
+			this.logScores.put(feedId, logScore);
+
+			Ranked current = this.members.get(feedId);
+
+			if (current != null) {
+				this.top.remove(current);
+			} else if (this.top.size() >= this.size) {
+				if (logScore <= this.top.last().logScore()) {
+					return;
+				}
+				this.members.remove(this.top.pollLast().feedId());
+			}
+
+			Ranked ranked = new Ranked(feedId, logScore);
+
+			this.top.add(ranked);
+			this.members.put(feedId, ranked);
+			this.changed = true;
+		}
+	}
+
+	/* Forgets a deleted feed, the best feed outside the list takes its place */
+	public void discard(int feedId) {
+
+		synchronized (this) {
+			this.logScores.remove(feedId);
+
+			Ranked removed = this.members.remove(feedId);
+
+			if (removed == null) {
+				return;
+			}
+
+			this.top.remove(removed);
+
+			this.logScores.entrySet().stream().filter(e -> !this.members.containsKey(e.getKey()))
+					.max(Map.Entry.comparingByValue()).ifPresent(e -> {
+						Ranked ranked = new Ranked(e.getKey(), e.getValue());
+						this.top.add(ranked);
+						this.members.put(e.getKey(), ranked);
+					});
+
+			this.changed = true;
+		}
+	}
+
+	private Ranked[] ranking() {
+
+		if (this.changed) {
+			synchronized (this) {
+				if (this.changed) {
+					this.snapshot = this.top.toArray(new Ranked[0]);
+					this.changed = false;
+				}
+			}
+		}
+
+		return this.snapshot;
+	}
+
+	/*
+	 * The top feeds with their current scores, embedding the JSON views of the
+	 * feeds. Trending feeds are the most requested ones, so views from the
+	 * FeedViewCache are nearly always in memory already.
+	 */
+	public List<TrendingFeed> getTrending(int limit, IntFunction<byte[]> views) {
+		Ranked[] ranking = this.ranking();
+		limit = CursorResponse.clampLimit(limit);
+		double offset = this.lambda * (System.currentTimeMillis() - this.epoch);
+
+		List<TrendingFeed> trending = new ArrayList<>(Math.min(limit, ranking.length));
+
+		for (int i = 0; i < ranking.length && trending.size() < limit; i++) {
+			int feedId = ranking[i].feedId();
+
+			try {
+				byte[] view = views.apply(feedId);
+
+				trending.add(new TrendingFeed(feedId, Math.exp(ranking[i].logScore() - offset),
+						new String(view, StandardCharsets.UTF_8)));
+			} catch (FeedNotFoundException ex) {
+				/* Deleted before its discard got here */
+				logger.debug("Trending feed not found, feedId: {}", feedId);
+			}
+		}
+
+		return trending;
+	}
+}
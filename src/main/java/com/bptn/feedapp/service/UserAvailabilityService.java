@@ -0,0 +1,146 @@
+package com.bptn.feedapp.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.jdbc.UserDao;
+import com.bptn.feedapp.repository.UserRepository;
+
+/*
+ * Answers "is this username or email taken" from Bloom filters of every
+ * username and email, loaded once at startup and kept up to date on signup. A
+ * negative answer is certain and never touches the DB, only a possible match
+ * is confirmed with an existence query. Until the filters are loaded every
+ * check goes to the DB. The unique indexes on the User table stay the
+ * authority, the filters only save the queries.
+ */
+@Service
+public class UserAvailabilityService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	UserDao userDao;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Value("${user.availability.enabled}")
+	private boolean enabled;
+
+	@Value("${user.availability.expected-users}")
+	private long expectedUsers;
+
+	@Value("${user.availability.fpp}")
+	private double fpp;
+
+	@Value("${user.availability.fetch-size}")
+	private int fetchSize;
+
+	private volatile BloomFilter usernames;
+	private volatile BloomFilter emails;
+	private volatile boolean loaded;
+
+	private final AtomicLong filtered = new AtomicLong();
+	private final AtomicLong queried = new AtomicLong();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+
+		if (!this.enabled) {
+			return;
+		}
+
+		/* Signups during the scan are added to the new filters as well */
+		this.usernames = new BloomFilter(this.expectedUsers, this.fpp);
+		this.emails = new BloomFilter(this.expectedUsers, this.fpp);
+
+		long start = System.currentTimeMillis();
+		AtomicLong count = new AtomicLong();
+
+		this.userDao.forEachUsernameAndEmail(this.fetchSize, (username, emailId) -> {
+			this.add(username, emailId);
+			count.incrementAndGet();
+		});
+
+		this.loaded = true;
+
+		logger.debug("Loaded {} usernames and emails in {} ms", count.get(), System.currentTimeMillis() - start);
+	}
+
+	private static String key(String value) {
+		return value.toLowerCase();
+	}
+
+	/* Records the username and email of a saved user */
+	public void add(String username, String emailId) {
+		BloomFilter usernames = this.usernames;
+		BloomFilter emails = this.emails;
+
+		if (usernames == null) {
+			return;
+		}
+
+		if (username != null) {
+			usernames.put(key(username));
+		}
+
+		if (emailId != null) {
+			emails.put(key(emailId));
+		}
+	}
+
+	/* False when neither value can be taken, no query needed */
+	public boolean mightBeTaken(String username, String emailId) {
+
+		if (!this.loaded) {
+			return true;
+		}
+
+		boolean taken = this.usernames.mightContain(key(username)) || this.emails.mightContain(key(emailId));
+
+		(taken ? this.queried : this.filtered).incrementAndGet();
+
+		return taken;
+	}
+
+	public boolean isUsernameAvailable(String username) {
+
+		if (this.loaded && !this.usernames.mightContain(key(username))) {
+			this.filtered.incrementAndGet();
+			return true;
+		}
+
+		this.queried.incrementAndGet();
+
+		return !this.userRepository.existsByUsername(key(username));
+	}
+
+	public boolean isEmailAvailable(String emailId) {
+
+		if (this.loaded && !this.emails.mightContain(key(emailId))) {
+			this.filtered.incrementAndGet();
+			return true;
+		}
+
+		this.queried.incrementAndGet();
+
+		return !this.userRepository.existsByEmailId(key(emailId));
+	}
+
+	/* Checks answered by the filters alone */
+	public long getFilteredCount() {
+		return this.filtered.get();
+	}
+
+	/* Checks that needed a query */
+	public long getQueriedCount() {
+		return this.queried.get();
+	}
+}
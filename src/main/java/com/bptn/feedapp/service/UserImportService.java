@@ -0,0 +1,334 @@
+package com.bptn.feedapp.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.bptn.feedapp.domain.ImportReport;
+import com.bptn.feedapp.jdbc.UserBean;
+import com.bptn.feedapp.jdbc.UserDao;
+import com.bptn.feedapp.jpa.EmailOutbox;
+import com.bptn.feedapp.security.BoundedPasswordEncoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * Imports users from CSV or newline delimited JSON. The input is read in
+ * batches: every batch is checked for taken usernames and emails with one
+ * query, its passwords are hashed in parallel and its rows are inserted in one
+ * COPY or JDBC batch. Rows that cannot be imported are reported with their line
+ * number and the import carries on. Imported users verify their email like
+ * any other signup, a verification email is queued for each of them.
+ */
+@Service
+public class UserImportService {
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	UserDao userDao;
+
+	@Autowired
+	UserAvailabilityService userAvailabilityService;
+
+	@Autowired
+	BoundedPasswordEncoder passwordEncoder;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	EmailOutboxService emailOutboxService;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	@Qualifier("importExecutor")
+	Executor importExecutor;
+
+	@Value("${user.import.batch-size}")
+	private int batchSize;
+
+	@Value("${user.import.max-rejects}")
+	private int maxRejects;
+
+	record Row(int line, UserBean user) {
+	}
+
+	private interface RowReader {
+		/* The next row, a row without a user was rejected already, null at the end */
+		Row next() throws IOException;
+	}
+
+	public ImportReport importUsers(InputStream in, MediaType contentType) throws IOException {
+
+		long start = System.currentTimeMillis();
+		ImportReport report = new ImportReport(this.maxRejects);
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+		RowReader rows = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType) ? this.ndjson(reader, report)
+				: this.csv(reader, report);
+
+		List<Row> batch = new ArrayList<>(this.batchSize);
+
+		for (Row row = rows.next(); row != null; row = rows.next()) {
+			report.addTotal(1);
+
+			if (row.user() != null) {
+				batch.add(row);
+			}
+
+			if (batch.size() == this.batchSize) {
+				this.importBatch(batch, report);
+				batch.clear();
+			}
+		}
+
+		this.importBatch(batch, report);
+
+		report.setElapsedMillis(System.currentTimeMillis() - start);
+
+		logger.debug("Import finished, {} of {} users imported, {} rejected in {} ms", report.getImported(),
+				report.getTotal(), report.getRejected(), report.getElapsedMillis());
+
+		return report;
+	}
+
+	private RowReader ndjson(BufferedReader reader, ImportReport report) {
+		int[] line = { 0 };
+
+		return () -> {
+			String json;
+
+			/* Skips blank lines */
+			do {
+				json = reader.readLine();
+				line[0]++;
+			} while (json != null && json.isBlank());
+
+			if (json == null) {
+				return null;
+			}
+
+			try {
+				return new Row(line[0], this.objectMapper.readValue(json, UserBean.class));
+			} catch (JsonProcessingException ex) {
+				report.reject(line[0], String.format("Invalid JSON, %s", ex.getOriginalMessage()));
+				return new Row(line[0], null);
+			}
+		};
+	}
+
+	/* The first record names the columns, in any order */
+	private RowReader csv(BufferedReader reader, ImportReport report) throws IOException {
+		CsvReader csv = new CsvReader(reader);
+		Map<String, Integer> columns = new HashMap<>();
+
+		Optional.ofNullable(csv.next()).orElse(List.of())
+				.forEach(name -> columns.put(name.trim(), columns.size()));
+
+		int[] line = { 1 };
+
+		return () -> {
+			List<String> fields = csv.next();
+			line[0]++;
+
+			if (fields == null) {
+				return null;
+			}
+
+			UserBean user = new UserBean();
+
+			user.setFirstName(field(fields, columns, "firstName"));
+			user.setLastName(field(fields, columns, "lastName"));
+			user.setUsername(field(fields, columns, "username"));
+			user.setPassword(field(fields, columns, "password"));
+			user.setPhone(field(fields, columns, "phone"));
+			user.setEmailId(field(fields, columns, "emailId"));
+
+			return new Row(line[0], user);
+		};
+	}
+
+	private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+		Integer index = columns.get(name);
+
+		return index == null || index >= fields.size() ? null : fields.get(index);
+	}
+
+	/* Normalizes the user, returns why it cannot be imported or null */
+	private static String validate(UserBean user) {
+
+		if (!StringUtils.hasText(user.getUsername())) {
+			return "Username is required";
+		}
+
+		if (!StringUtils.hasText(user.getEmailId()) || !user.getEmailId().contains("@")) {
+			return String.format("Invalid email, %s", user.getEmailId());
+		}
+
+		if (!StringUtils.hasText(user.getPassword())) {
+			return "Password is required";
+		}
+
+		user.setUsername(user.getUsername().trim().toLowerCase());
+		user.setEmailId(user.getEmailId().trim().toLowerCase());
+		/* Whatever the input says, the address is not verified until its owner confirms it */
+		user.setEmailVerified(false);
+		user.setCreatedOn(Timestamp.from(Instant.now()));
+
+		return null;
+	}
+
+	private void importBatch(List<Row> batch, ImportReport report) {
+
+		Set<String> usernames = new HashSet<>();
+		Set<String> emailIds = new HashSet<>();
+		List<Row> valid = new ArrayList<>();
+
+		/* Invalid rows and values repeated within the batch */
+		for (Row row : batch) {
+			UserBean user = row.user();
+			String error = validate(user);
+
+			if (error == null && usernames.contains(user.getUsername())) {
+				error = String.format("Username already exists, %s", user.getUsername());
+			} else if (error == null && emailIds.contains(user.getEmailId())) {
+				error = String.format("Email already exists, %s", user.getEmailId());
+			}
+
+			if (error == null) {
+				usernames.add(user.getUsername());
+				emailIds.add(user.getEmailId());
+				valid.add(row);
+			} else {
+				report.reject(row.line(), error);
+			}
+		}
+
+		/* Values taken by existing users, only those the filters cannot rule out are queried */
+		Set<String> suspectUsernames = new HashSet<>();
+		Set<String> suspectEmailIds = new HashSet<>();
+
+		valid.stream().map(Row::user)
+				.filter(u -> this.userAvailabilityService.mightBeTaken(u.getUsername(), u.getEmailId()))
+				.forEach(u -> {
+					suspectUsernames.add(u.getUsername());
+					suspectEmailIds.add(u.getEmailId());
+				});
+
+		if (!suspectUsernames.isEmpty()) {
+			Set<String> takenUsernames = new HashSet<>();
+			Set<String> takenEmailIds = new HashSet<>();
+
+			this.userDao.findByUsernameOrEmailIdIn(suspectUsernames, suspectEmailIds).forEach(u -> {
+				takenUsernames.add(u.getUsername());
+				takenEmailIds.add(u.getEmailId());
+			});
+
+			valid.removeIf(row -> {
+				UserBean user = row.user();
+
+				if (takenUsernames.contains(user.getUsername())) {
+					report.reject(row.line(), String.format("Username already exists, %s", user.getUsername()));
+					return true;
+				}
+
+				if (takenEmailIds.contains(user.getEmailId())) {
+					report.reject(row.line(), String.format("Email already exists, %s", user.getEmailId()));
+					return true;
+				}
+
+				return false;
+			});
+		}
+
+		if (valid.isEmpty()) {
+			return;
+		}
+
+		/*
+		 * BCrypt is the slow part, the pool hashes the batch in parallel. The plain
+		 * encoder is used, imports must not be turned away like login bursts.
+		 */
+		PasswordEncoder encoder = this.passwordEncoder.getDelegate();
+
+		CompletableFuture.allOf(valid.stream().map(Row::user)
+				.map(u -> CompletableFuture.runAsync(() -> u.setPassword(encoder.encode(u.getPassword())),
+						this.importExecutor))
+				.toArray(CompletableFuture[]::new)).join();
+
+		List<Row> inserted = this.insert(valid, report);
+
+		inserted.forEach(row -> this.userAvailabilityService.add(row.user().getUsername(), row.user().getEmailId()));
+
+		this.emailOutboxService.enqueueNew(inserted.stream().map(Row::user)
+				.collect(Collectors.toMap(UserBean::getUserId, UserBean::getEmailId)), EmailOutbox.Type.VERIFY_EMAIL);
+
+		/* Cached lookups may have found none of these users, they are dropped */
+		if (!inserted.isEmpty()) {
+			this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+		}
+
+		report.addImported(inserted.size());
+
+		logger.debug("Imported {} of {} users, {} rejected", report.getImported(), report.getTotal(),
+				report.getRejected());
+	}
+
+	/*
+	 * Inserts the batch at once. If a user signed up with one of the values in
+	 * the meantime the whole batch is rolled back and inserted row by row.
+	 */
+	private List<Row> insert(List<Row> rows, ImportReport report) {
+
+		try {
+			this.userDao.createUsers(rows.stream().map(Row::user).toList());
+			return rows;
+		} catch (DataIntegrityViolationException ex) {
+			logger.debug("Batch insert failed, inserting row by row: {}", ex.getMessage());
+		}
+
+		List<Row> inserted = new ArrayList<>();
+
+		for (Row row : rows) {
+			try {
+				this.userDao.createUser(row.user());
+				inserted.add(row);
+			} catch (DataIntegrityViolationException ex) {
+				report.reject(row.line(), String.format("Username or email already exists, %s", row.user().getUsername()));
+			}
+		}
+
+		return inserted;
+	}
+}
@@ -1,10 +1,16 @@
 package com.bptn.feedapp.service;
 
+import static com.bptn.feedapp.service.RefreshTokenService.REFRESH_TOKEN_HEADER;
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -12,24 +18,36 @@ import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import com.bptn.feedapp.domain.CursorResponse;
 import com.bptn.feedapp.exception.domain.EmailExistException;
 import com.bptn.feedapp.exception.domain.EmailNotVerifiedException;
 import com.bptn.feedapp.exception.domain.UserNotFoundException;
 import com.bptn.feedapp.exception.domain.UsernameExistException;
+import com.bptn.feedapp.jdbc.UserDao;
+import com.bptn.feedapp.jpa.EmailOutbox;
 import com.bptn.feedapp.jpa.Profile;
 import com.bptn.feedapp.jpa.User;
 import com.bptn.feedapp.provider.ResourceProvider;
 import com.bptn.feedapp.repository.UserRepository;
 import com.bptn.feedapp.security.JwtService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
 
 @Service
 public class UserService {
@@ -40,7 +58,7 @@ public class UserService {
 	UserRepository userRepository;
 
 	@Autowired
-	EmailService emailService;
+	EmailOutboxService emailOutboxService;
 
 	@Autowired
 	PasswordEncoder passwordEncoder;
@@ -54,7 +72,29 @@ public class UserService {
 	@Autowired
 	ResourceProvider provider;
 
-	/* To register a user */
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	CurrentUserService currentUserService;
+
+	@Autowired
+	UserAvailabilityService userAvailabilityService;
+
+	@Autowired
+	UserDao userDao;
+
+	@Autowired
+	RefreshTokenService refreshTokenService;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Value("${user.export.fetch-size}")
+	private int exportFetchSize;
+
+	/* To register a user, the verification email is sent once the user is committed */
+	@Transactional
 	public User signup(User user) {
 
 		user.setUsername(user.getUsername().toLowerCase());
@@ -66,15 +106,54 @@ public class UserService {
 		user.setPassword(this.passwordEncoder.encode(user.getPassword()));
 		user.setCreatedOn(Timestamp.from(Instant.now()));
 
-		this.emailService.sendVerificationEmail(user);
+		/* Flushed here, so a concurrent signup with the same values fails on the unique indexes */
+		try {
+			this.userRepository.saveAndFlush(user);
+		} catch (DataIntegrityViolationException ex) {
+			throw this.translateDuplicate(ex, user);
+		}
+
+		this.userAvailabilityService.add(user.getUsername(), user.getEmailId());
+
+		this.emailOutboxService.enqueue(user, EmailOutbox.Type.VERIFY_EMAIL);
 
-		this.userRepository.save(user);
 		return user;
 
 	}
 
-	public List<User> listUsers() {
-		return this.userRepository.findAll();
+	/* A page of users in userId order, after the cursor */
+	public CursorResponse<User> listUsers(String after, int limit) {
+
+		int pageSize = CursorResponse.clampLimit(limit);
+
+		/* Fetch one extra row to know if there is a next page */
+		List<User> users = this.userRepository.findByUserIdGreaterThanOrderByUserIdAsc(CursorResponse.decode(after, 0),
+				PageRequest.of(0, pageSize + 1));
+
+		return CursorResponse.of(users, pageSize, User::getUserId);
+	}
+
+	/*
+	 * Writes every user as one JSON object per line. Rows are read through a
+	 * JDBC cursor and written as they arrive, so memory use does not grow with
+	 * the number of users.
+	 */
+	public void exportUsers(OutputStream out) throws IOException {
+
+		try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(out)) {
+
+			generator.setRootValueSeparator(new SerializedString("\n"));
+
+			this.userDao.forEachUser(this.exportFetchSize, user -> {
+				try {
+					generator.writeObject(user);
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+
+			generator.writeRaw('\n');
+		}
 	}
 
 	/* To find a user by their user name if it exists in the database */
@@ -86,26 +165,60 @@ public class UserService {
 		this.userRepository.save(user);
 	}
 
-	/* To make sure a user name and email is unique */
+	/*
+	 * To make sure a user name and email is unique. Values the availability
+	 * filters have never seen are skipped, the rest are checked in one query.
+	 */
 	private void validateUsernameAndEmail(String username, String emailId) {
 
-		this.userRepository.findByUsername(username).ifPresent(u -> {
-			throw new UsernameExistException(String.format("Username already exists, %s", u.getUsername()));
-		});
+		if (!this.userAvailabilityService.mightBeTaken(username, emailId)) {
+			return;
+		}
 
-		this.userRepository.findByEmailId(emailId).ifPresent(u -> {
-			throw new EmailExistException(String.format("Email already exists, %s", u.getEmailId()));
-		});
+		List<String> taken = this.userRepository.findTaken(username, emailId);
+
+		if (taken.contains("username")) {
+			throw new UsernameExistException(String.format("Username already exists, %s", username));
+		}
+
+		if (taken.contains("emailId")) {
+			throw new EmailExistException(String.format("Email already exists, %s", emailId));
+		}
 
 	}
 
+	/* Maps a unique index violation to the same error the check above gives */
+	private RuntimeException translateDuplicate(DataIntegrityViolationException ex, User user) {
+		String message = String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase();
+
+		if (message.contains(User.USERNAME_KEY.toLowerCase())) {
+			return new UsernameExistException(String.format("Username already exists, %s", user.getUsername()));
+		}
+
+		if (message.contains(User.EMAIL_ID_KEY.toLowerCase())) {
+			return new EmailExistException(String.format("Email already exists, %s", user.getEmailId()));
+		}
+
+		return ex;
+	}
+
+	/* To check a user name and/or email before signing up, mostly without a query */
+	public Map<String, Boolean> checkAvailability(String username, String emailId) {
+		Map<String, Boolean> availability = new LinkedHashMap<>();
+
+		Optional.ofNullable(username).filter(StringUtils::hasText)
+				.ifPresent(u -> availability.put("username", this.userAvailabilityService.isUsernameAvailable(u)));
+
+		Optional.ofNullable(emailId).filter(StringUtils::hasText)
+				.ifPresent(e -> availability.put("emailId", this.userAvailabilityService.isEmailAvailable(e)));
+
+		return availability;
+	}
+
 	/* To verify a user's email */
 	public void verifyEmail() {
 
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-
-		User user = this.userRepository.findByUsername(username)
-				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+		User user = this.currentUserService.getUser();
 
 		user.setEmailVerified(true);
 
@@ -142,12 +255,31 @@ public class UserService {
 
 	/*
 	 * generates a JWT token for a given user and returns the header with a
-	 * generated token
+	 * generated token, along with a refresh token starting a new session
 	 */
-	public HttpHeaders generateJwtHeader(String username) {
+	public HttpHeaders generateJwtHeader(User user) {
+		HttpHeaders headers = new HttpHeaders();
+
+		headers.add(AUTHORIZATION, this.jwtService.generateJwtToken(user.getUsername(), user.getUserId(),
+				this.provider.getJwtExpiration()));
+		headers.add(REFRESH_TOKEN_HEADER, this.refreshTokenService.issue(user.getUserId()));
+
+		return headers;
+	}
+
+	/* Renews the JWT of a session without the password, the refresh token is replaced as well */
+	public HttpHeaders refreshJwtHeader(String refreshToken) {
+		RefreshTokenService.Rotated rotated = this.refreshTokenService.rotate(refreshToken);
+
+		/* Served from the second-level cache */
+		User user = this.userRepository.findById(rotated.userId())
+				.orElseThrow(() -> new UserNotFoundException(String.format("User doesn't exist, %d", rotated.userId())));
+
 		HttpHeaders headers = new HttpHeaders();
 
-		headers.add(AUTHORIZATION, this.jwtService.generateJwtToken(username, this.provider.getJwtExpiration()));
+		headers.add(AUTHORIZATION, this.jwtService.generateJwtToken(user.getUsername(), user.getUserId(),
+				this.provider.getJwtExpiration()));
+		headers.add(REFRESH_TOKEN_HEADER, rotated.refreshToken());
 
 		return headers;
 	}
@@ -157,7 +289,7 @@ public class UserService {
 		Optional<User> opt = this.userRepository.findByEmailId(emailId);
 
 		if (opt.isPresent()) {
-			this.emailService.sendResetPasswordEmail(opt.get());
+			this.emailOutboxService.enqueue(opt.get(), EmailOutbox.Type.RESET_PASSWORD);
 		} else {
 			logger.debug("That email does not exist, {}", emailId);
 		}
@@ -166,23 +298,20 @@ public class UserService {
 	/* To reset a password */
 	public void resetPassword(String password) {
 
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-
-		User user = this.userRepository.findByUsername(username)
-				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+		User user = this.currentUserService.getUser();
 
 		user.setPassword(this.passwordEncoder.encode(password));
 
 		this.userRepository.save(user);
 
+		/* Sessions started with the old password end when their JWT expires */
+		this.refreshTokenService.revokeAll(user.getUserId());
+
 	}
 
 	/* Get the signed in user */
 	public User getUser() {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-
-		return this.userRepository.findByUsername(username)
-				.orElseThrow(() -> new UserNotFoundException(String.format("Username does not exist, %s", username)));
+		return this.currentUserService.getUser();
 	}
 
 	/* Helper Method to update a field in the User table */
@@ -209,13 +338,23 @@ public class UserService {
 		this.updateValue(user::getEmailId, currentUser::setEmailId);
 		this.updatePassword(user::getPassword, currentUser::setPassword);
 
-		return this.userRepository.save(currentUser);
+		User saved = this.userRepository.save(currentUser);
+
+		if (StringUtils.hasText(user.getPassword())) {
+			this.refreshTokenService.revokeAll(saved.getUserId());
+		}
+
+		this.userAvailabilityService.add(null, saved.getEmailId());
+
+		this.evictCachedUser(saved);
+
+		return saved;
 	}
 
 	/* Method to update user */
 	public User updateUser(User user) {
 
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
+		String username = this.currentUserService.getUsername();
 
 		/* Validates the new email if provided */
 		this.userRepository.findByEmailId(user.getEmailId()).filter(u -> !u.getUsername().equals(username))
@@ -224,8 +363,7 @@ public class UserService {
 				});
 
 		/* Get and Update User */
-		return this.userRepository.findByUsername(username).map(currentUser -> this.updateUser(user, currentUser))
-				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+		return this.updateUser(user, this.currentUserService.getUser());
 	}
 
 	/* Helper method to update a user's profile */
@@ -244,15 +382,29 @@ public class UserService {
 			profile.setUser(user);
 		}
 
-		return this.userRepository.save(user);
+		User saved = this.userRepository.save(user);
+
+		this.evictCachedUser(saved);
+
+		return saved;
 	}
 
 	public User updateUserProfile(Profile profile) {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
 
 		/* Get and Update the user if the user exists */
-		return this.userRepository.findByUsername(username).map(u -> this.updateUserProfile(profile, u))
-				.orElseThrow(() -> new UserNotFoundException(String.format("Username does not exist, %s", username)));
+		return this.updateUserProfile(profile, this.currentUserService.getUser());
 	}
 
+	/*
+	 * Drop the user and its profile from the second-level cache once the update
+	 * is committed, the next lookup reloads them from the database.
+	 */
+	private void evictCachedUser(User user) {
+		Cache cache = this.entityManagerFactory.getCache();
+
+		cache.evict(User.class, user.getUserId());
+
+		Optional.ofNullable(user.getProfile()).map(Profile::getProfileId)
+				.ifPresent(id -> cache.evict(Profile.class, id));
+	}
 }
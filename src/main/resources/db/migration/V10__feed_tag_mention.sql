@@ -0,0 +1,20 @@
+-- Hashtags of feeds, written in batches by TagService after the feed is created
+CREATE TABLE IF NOT EXISTS "FeedTag" (
+    "tag"    varchar(64) NOT NULL,
+    "feedId" integer     NOT NULL REFERENCES "Feed" ("feedId") ON DELETE CASCADE,
+    PRIMARY KEY ("tag", "feedId")
+);
+
+-- Removing a deleted feed's tags
+CREATE INDEX IF NOT EXISTS "FeedTag_feedId_idx" ON "FeedTag" ("feedId");
+
+-- Users mentioned in feeds, read newest first as a notification list
+CREATE TABLE IF NOT EXISTS "Mention" (
+    "userId"    integer   NOT NULL REFERENCES "User" ("userId") ON DELETE CASCADE,
+    "feedId"    integer   NOT NULL REFERENCES "Feed" ("feedId") ON DELETE CASCADE,
+    "authorId"  integer   NOT NULL REFERENCES "User" ("userId") ON DELETE CASCADE,
+    "createdOn" timestamp NOT NULL,
+    PRIMARY KEY ("userId", "feedId")
+);
+
+CREATE INDEX IF NOT EXISTS "Mention_feedId_idx" ON "Mention" ("feedId");
@@ -0,0 +1,3 @@
+-- Home timelines are read from the newest feeds of all users held in memory,
+-- the per user fan-out rows are no longer written
+DROP TABLE IF EXISTS "TimelineEntry";
@@ -0,0 +1,14 @@
+-- Denormalized like and comment counters on "Feed", maintained by FeedCounterService
+ALTER TABLE "Feed" ADD COLUMN IF NOT EXISTS "likeCount" bigint NOT NULL DEFAULT 0;
+ALTER TABLE "Feed" ADD COLUMN IF NOT EXISTS "commentCount" bigint NOT NULL DEFAULT 0;
+
+-- Backfill from the existing likes and comments
+UPDATE "Feed" f
+   SET "likeCount"    = c.likes,
+       "commentCount" = c.comments
+  FROM (SELECT "feedId",
+               COUNT(*) FILTER (WHERE "isLike")     AS likes,
+               COUNT(*) FILTER (WHERE NOT "isLike") AS comments
+          FROM "FeedMetaData"
+         GROUP BY "feedId") c
+ WHERE f."feedId" = c."feedId";
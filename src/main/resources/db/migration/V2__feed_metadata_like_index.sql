@@ -0,0 +1,18 @@
+-- Backs the duplicate like check in FeedMetaDataRepository
+CREATE INDEX IF NOT EXISTS "FeedMetaData_feedId_actionUserId_isLike_idx"
+    ON "FeedMetaData" ("feedId", "actionUserId", "isLike");
+
+-- Drop duplicate likes left by the old racy check, keeping the oldest one
+DELETE FROM "FeedMetaData" a
+      USING "FeedMetaData" b
+      WHERE a."isLike" AND b."isLike"
+        AND a."feedId" = b."feedId"
+        AND a."actionUserId" = b."actionUserId"
+        AND a."feedMetaDataId" > b."feedMetaDataId";
+
+UPDATE "Feed" f
+   SET "likeCount" = (SELECT COUNT(*) FROM "FeedMetaData" m WHERE m."feedId" = f."feedId" AND m."isLike");
+
+-- One like per user and feed, comments are not restricted
+CREATE UNIQUE INDEX IF NOT EXISTS "FeedMetaData_feedId_actionUserId_like_key"
+    ON "FeedMetaData" ("feedId", "actionUserId") WHERE "isLike";
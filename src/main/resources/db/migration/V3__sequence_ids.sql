@@ -0,0 +1,14 @@
+-- The entities moved from IDENTITY to sequence ids with Hibernate's pooled-lo
+-- optimizer: every sequence value is the first id of a block of 50, see
+-- SequenceIdAllocator.ALLOCATION_SIZE. The serial column defaults still work
+-- for plain SQL inserts, they simply use one id out of a block.
+ALTER SEQUENCE "User_userId_seq" INCREMENT BY 50;
+ALTER SEQUENCE "Profile_profileId_seq" INCREMENT BY 50;
+ALTER SEQUENCE "Feed_feedId_seq" INCREMENT BY 50;
+ALTER SEQUENCE "FeedMetaData_feedMetaDataId_seq" INCREMENT BY 50;
+
+-- Restart every sequence right after the highest id in use
+SELECT setval('"User_userId_seq"', COALESCE((SELECT MAX("userId") FROM "User"), 0) + 1, false);
+SELECT setval('"Profile_profileId_seq"', COALESCE((SELECT MAX("profileId") FROM "Profile"), 0) + 1, false);
+SELECT setval('"Feed_feedId_seq"', COALESCE((SELECT MAX("feedId") FROM "Feed"), 0) + 1, false);
+SELECT setval('"FeedMetaData_feedMetaDataId_seq"', COALESCE((SELECT MAX("feedMetaDataId") FROM "FeedMetaData"), 0) + 1, false);
@@ -0,0 +1,27 @@
+-- Emails are written here in the transaction of the change that triggers
+-- them and sent afterwards by EmailOutboxService
+CREATE SEQUENCE IF NOT EXISTS "EmailOutbox_emailOutboxId_seq" INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS "EmailOutbox" (
+    "emailOutboxId" integer      NOT NULL DEFAULT nextval('"EmailOutbox_emailOutboxId_seq"') PRIMARY KEY,
+    type            varchar(32)  NOT NULL,
+    "userId"        integer      NOT NULL REFERENCES "User" ("userId") ON DELETE CASCADE,
+    "emailId"       varchar(255) NOT NULL,
+    "dedupKey"      varchar(255) NOT NULL,
+    status          varchar(16)  NOT NULL,
+    attempts        integer      NOT NULL DEFAULT 0,
+    "lastError"     varchar(255),
+    "createdOn"     timestamp    NOT NULL,
+    "nextAttemptOn" timestamp    NOT NULL,
+    "sentOn"        timestamp
+);
+
+ALTER SEQUENCE "EmailOutbox_emailOutboxId_seq" OWNED BY "EmailOutbox"."emailOutboxId";
+
+-- Backs the dispatcher's due query
+CREATE INDEX IF NOT EXISTS "EmailOutbox_status_nextAttemptOn_idx"
+    ON "EmailOutbox" (status, "nextAttemptOn");
+
+-- The same email can only be pending once per user
+CREATE UNIQUE INDEX IF NOT EXISTS "EmailOutbox_dedupKey_pending_key"
+    ON "EmailOutbox" ("dedupKey") WHERE status = 'PENDING';
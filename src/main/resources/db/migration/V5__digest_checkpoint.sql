@@ -0,0 +1,18 @@
+-- Progress of the weekly digest job, one row per period and userId partition
+CREATE SEQUENCE IF NOT EXISTS "DigestCheckpoint_digestCheckpointId_seq" INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS "DigestCheckpoint" (
+    "digestCheckpointId" integer   NOT NULL DEFAULT nextval('"DigestCheckpoint_digestCheckpointId_seq"') PRIMARY KEY,
+    "periodStart"        timestamp NOT NULL,
+    "partitionStart"     integer   NOT NULL,
+    "partitionEnd"       integer   NOT NULL,
+    "lastUserId"         integer   NOT NULL,
+    "sentCount"          integer   NOT NULL DEFAULT 0,
+    "completedOn"        timestamp,
+    CONSTRAINT "DigestCheckpoint_periodStart_partitionStart_key" UNIQUE ("periodStart", "partitionStart")
+);
+
+ALTER SEQUENCE "DigestCheckpoint_digestCheckpointId_seq" OWNED BY "DigestCheckpoint"."digestCheckpointId";
+
+-- Backs the digest's grouped query, activity in a period by feed
+CREATE INDEX IF NOT EXISTS "FeedMetaData_createdOn_idx" ON "FeedMetaData" ("createdOn");
@@ -0,0 +1,4 @@
+-- Signup relies on the insert to reject a taken username or email
+CREATE UNIQUE INDEX IF NOT EXISTS "User_username_key" ON "User" (username);
+
+CREATE UNIQUE INDEX IF NOT EXISTS "User_emailId_key" ON "User" ("emailId");
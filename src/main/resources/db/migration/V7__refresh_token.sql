@@ -0,0 +1,23 @@
+-- Refresh tokens, stored as their HMAC and rotated on every use
+CREATE SEQUENCE IF NOT EXISTS "RefreshToken_refreshTokenId_seq" INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS "RefreshToken" (
+    "refreshTokenId" integer     NOT NULL DEFAULT nextval('"RefreshToken_refreshTokenId_seq"') PRIMARY KEY,
+    "userId"         integer     NOT NULL REFERENCES "User" ("userId") ON DELETE CASCADE,
+    "familyId"       integer     NOT NULL,
+    "tokenDigest"    varchar(64) NOT NULL,
+    "createdOn"      timestamp   NOT NULL,
+    "expiresOn"      timestamp   NOT NULL,
+    "usedOn"         timestamp,
+    CONSTRAINT "RefreshToken_tokenDigest_key" UNIQUE ("tokenDigest")
+);
+
+ALTER SEQUENCE "RefreshToken_refreshTokenId_seq" OWNED BY "RefreshToken"."refreshTokenId";
+
+-- A replayed token revokes its whole family, a password change all of a user's tokens
+CREATE INDEX IF NOT EXISTS "RefreshToken_familyId_idx" ON "RefreshToken" ("familyId");
+
+CREATE INDEX IF NOT EXISTS "RefreshToken_userId_idx" ON "RefreshToken" ("userId");
+
+-- Backs the cleanup of expired tokens
+CREATE INDEX IF NOT EXISTS "RefreshToken_expiresOn_idx" ON "RefreshToken" ("expiresOn");
@@ -0,0 +1,10 @@
+-- Home timelines, written when a feed is created (fan-out on write) and
+-- trimmed to the newest entries per user by TimelineService
+CREATE TABLE IF NOT EXISTS "TimelineEntry" (
+    "userId" integer NOT NULL REFERENCES "User" ("userId") ON DELETE CASCADE,
+    "feedId" integer NOT NULL REFERENCES "Feed" ("feedId") ON DELETE CASCADE,
+    PRIMARY KEY ("userId", "feedId")
+);
+
+-- Removing a feed from every timeline
+CREATE INDEX IF NOT EXISTS "TimelineEntry_feedId_idx" ON "TimelineEntry" ("feedId");
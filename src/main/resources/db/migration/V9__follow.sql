@@ -0,0 +1,14 @@
+-- Who follows whom, loaded into FollowService's adjacency index at startup
+CREATE TABLE IF NOT EXISTS "Follow" (
+    "followerId" integer   NOT NULL REFERENCES "User" ("userId") ON DELETE CASCADE,
+    "followeeId" integer   NOT NULL REFERENCES "User" ("userId") ON DELETE CASCADE,
+    "createdOn"  timestamp NOT NULL,
+    PRIMARY KEY ("followerId", "followeeId"),
+    CONSTRAINT "Follow_not_self_check" CHECK ("followerId" <> "followeeId")
+);
+
+-- Followers of a user
+CREATE INDEX IF NOT EXISTS "Follow_followeeId_idx" ON "Follow" ("followeeId");
+
+-- The newest feeds of an author, the streams the following timeline merges
+CREATE INDEX IF NOT EXISTS "Feed_userId_feedId_idx" ON "Feed" ("userId", "feedId");
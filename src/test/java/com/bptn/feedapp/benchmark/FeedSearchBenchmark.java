@@ -0,0 +1,118 @@
+package com.bptn.feedapp.benchmark;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.bptn.feedapp.service.InvertedIndex;
+
+/*
+ * Search latency over a million synthetic feeds, the InvertedIndex behind
+ * GET /feeds/search against a scan of every content as a LIKE '%x%' query
+ * does. Words are drawn from a skewed vocabulary, so a few terms are in most
+ * feeds and most terms in few, as in real text. The intersections pair a
+ * common term with rarer ones, the case the skip entries are for.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.bptn.feedapp.benchmark.FeedSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class FeedSearchBenchmark {
+
+	static final int FEEDS = 1_000_000;
+	static final int VOCABULARY = 50_000;
+	static final int LIMIT = 20;
+
+	String[] contents;
+	InvertedIndex index;
+
+	/* The nth most frequent word */
+	static String word(int rank) {
+		return "w" + rank;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(42);
+
+		this.contents = new String[FEEDS + 1];
+		this.index = new InvertedIndex();
+
+		for (int feedId = 1; feedId <= FEEDS; feedId++) {
+			StringBuilder content = new StringBuilder();
+			int words = 8 + random.nextInt(16);
+
+			for (int i = 0; i < words; i++) {
+				content.append(word((int) (Math.pow(random.nextDouble(), 4) * VOCABULARY))).append(' ');
+			}
+
+			this.contents[feedId] = content.toString();
+			this.index.add(feedId, this.contents[feedId]);
+		}
+
+		System.out.printf("%n%d feeds, %d terms, %d MB of postings%n", this.index.feedCount(), this.index.termCount(),
+				this.index.byteSize() >> 20);
+	}
+
+	@Benchmark
+	public int[] indexCommonTerm() {
+		return this.index.search(List.of(word(0)), LIMIT);
+	}
+
+	@Benchmark
+	public int[] indexRareTerm() {
+		return this.index.search(List.of(word(20_000)), LIMIT);
+	}
+
+	@Benchmark
+	public int[] indexCommonAndRareTerms() {
+		return this.index.search(List.of(word(0), word(20_000)), LIMIT);
+	}
+
+	@Benchmark
+	public int[] indexThreeTerms() {
+		return this.index.search(List.of(word(1), word(40), word(2_000)), LIMIT);
+	}
+
+	/* Before: every content is scanned for every term */
+	@Benchmark
+	public int scanCommonAndRareTerms() {
+		String[] terms = { " " + word(0) + " ", " " + word(20_000) + " " };
+		int matches = 0;
+
+		for (int feedId = 1; feedId <= FEEDS; feedId++) {
+			String content = " " + this.contents[feedId].toLowerCase(Locale.ROOT);
+
+			if (content.contains(terms[0]) && content.contains(terms[1])) {
+				matches++;
+			}
+		}
+
+		return matches;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(FeedSearchBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,133 @@
+package com.bptn.feedapp.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.bptn.feedapp.jdbc.SequenceIdAllocator;
+
+/*
+ * Inserts per second with the old IDENTITY ids against sequence ids allocated
+ * in pooled-lo blocks. It replays the JDBC calls Hibernate makes in both cases
+ * against an in-memory H2 database. IDENTITY needs one executeUpdate per row
+ * to read the generated key back, while sequence ids let the rows go out as
+ * one batch per block. Against Postgres the gap is larger because every
+ * statement is a network round-trip.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.bptn.feedapp.benchmark.IdGenerationBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGenerationBenchmark {
+
+	static final int ROWS = 1_000;
+
+	Connection connection;
+	Timestamp createdOn;
+
+	@Setup(Level.Trial)
+	public void setup() throws SQLException {
+		this.connection = DriverManager.getConnection("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+		this.createdOn = Timestamp.from(Instant.now());
+
+		try (Statement st = this.connection.createStatement()) {
+			st.execute("CREATE TABLE \"IdentityFeed\" (\"feedId\" integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+					+ "content varchar(255), \"createdOn\" timestamp)");
+			st.execute("CREATE TABLE \"SequenceFeed\" (\"feedId\" integer PRIMARY KEY, content varchar(255), \"createdOn\" timestamp)");
+			st.execute("CREATE SEQUENCE \"SequenceFeed_feedId_seq\" START WITH 1 INCREMENT BY "
+					+ SequenceIdAllocator.ALLOCATION_SIZE);
+		}
+		this.connection.setAutoCommit(false);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		this.connection.close();
+	}
+
+	/* Before: one INSERT per row, reading back the generated key */
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void identityInserts() throws SQLException {
+		String sql = "INSERT INTO \"IdentityFeed\" (content, \"createdOn\") VALUES (?, ?)";
+
+		try (PreparedStatement ps = this.connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			for (int i = 0; i < ROWS; i++) {
+				ps.setString(1, "Feed " + i);
+				ps.setTimestamp(2, this.createdOn);
+				ps.executeUpdate();
+
+				try (ResultSet keys = ps.getGeneratedKeys()) {
+					keys.next();
+				}
+			}
+		}
+		this.connection.commit();
+	}
+
+	/* After: one sequence call and one JDBC batch per block of ids */
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void pooledSequenceBatchInserts() throws SQLException {
+		String sql = "INSERT INTO \"SequenceFeed\" (\"feedId\", content, \"createdOn\") VALUES (?, ?, ?)";
+
+		try (PreparedStatement seq = this.connection.prepareStatement("VALUES NEXT VALUE FOR \"SequenceFeed_feedId_seq\"");
+				PreparedStatement ps = this.connection.prepareStatement(sql)) {
+
+			long next = 0;
+			long end = 0;
+
+			for (int i = 0; i < ROWS; i++) {
+				if (next == end) {
+					if (i > 0) {
+						ps.executeBatch();
+					}
+					try (ResultSet rs = seq.executeQuery()) {
+						rs.next();
+						next = rs.getLong(1);
+						end = next + SequenceIdAllocator.ALLOCATION_SIZE;
+					}
+				}
+
+				ps.setLong(1, next++);
+				ps.setString(2, "Feed " + i);
+				ps.setTimestamp(3, this.createdOn);
+				ps.addBatch();
+			}
+			ps.executeBatch();
+		}
+		this.connection.commit();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(IdGenerationBenchmark.class.getSimpleName()).build()).run();
+	}
+}
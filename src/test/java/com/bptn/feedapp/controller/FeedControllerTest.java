@@ -0,0 +1,656 @@
+package com.bptn.feedapp.controller;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.http.MediaType;
+
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.FeedMetaData;
+import com.bptn.feedapp.jpa.Profile;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.FeedMetaDataRepository;
+import com.bptn.feedapp.repository.FeedRepository;
+import com.bptn.feedapp.repository.UserRepository;
+import com.bptn.feedapp.security.JwtService;
+import com.bptn.feedapp.service.FeedCounterService;
+
+import com.jayway.jsonpath.JsonPath;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@ActiveProfiles("test")
+/* The outbox dispatcher polls in the background, keep it out of the statement counts */
+/* Author rings smaller than the feeds per author, so the following timeline falls back to the Feed table */
+@SpringBootTest(properties = { "email.outbox.poll-interval=3600000", "feed.follow.author-capacity=3" })
+@AutoConfigureMockMvc
+@DirtiesContext
+@TestInstance(Lifecycle.PER_CLASS)
+@TestMethodOrder(OrderAnnotation.class)
+public class FeedControllerTest {
+
+	String viewer = "feedviewer";
+	List<String> authors = List.of("feedauthor1", "feedauthor2", "feedauthor3");
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	JwtService jwtService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	FeedRepository feedRepository;
+
+	@Autowired
+	FeedMetaDataRepository feedMetaDataRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	FeedCounterService feedCounterService;
+
+	Statistics statistics;
+
+	private User createUser(String username) {
+		User user = new User();
+
+		user.setFirstName(username);
+		user.setLastName("Test");
+		user.setUsername(username);
+		user.setPassword("password");
+		user.setPhone("987654321");
+		user.setEmailId(username + "@example.com");
+		user.setEmailVerified(true);
+		user.setCreatedOn(Timestamp.from(Instant.now()));
+
+		Profile profile = new Profile();
+		profile.setHeadline("Headline of " + username);
+		profile.setUser(user);
+		user.setProfile(profile);
+
+		return this.userRepository.save(user);
+	}
+
+	private void createMetaData(Feed feed, User user, boolean isLike) {
+		FeedMetaData meta = new FeedMetaData();
+
+		meta.setFeed(feed);
+		meta.setUser(user);
+		meta.setIsLike(isLike);
+		meta.setComment(isLike ? "" : "Comment from " + user.getUsername());
+		meta.setCreatedOn(Timestamp.from(Instant.now()));
+
+		this.feedMetaDataRepository.save(meta);
+	}
+
+	@BeforeAll
+	public void setup() {
+
+		List<User> users = this.authors.stream().map(this::createUser).toList();
+		User viewer = this.createUser(this.viewer);
+
+		/* Every author posts several feeds, liked and commented on by everybody */
+		for (int i = 0; i < 8; i++) {
+			for (User author : users) {
+				Feed feed = new Feed();
+				feed.setUser(author);
+				feed.setContent(String.format("Feed %d from %s", i, author.getUsername()));
+				feed.setCreatedOn(Timestamp.from(Instant.now()));
+				feed = this.feedRepository.save(feed);
+
+				for (User u : users) {
+					this.createMetaData(feed, u, true);
+					this.createMetaData(feed, u, false);
+				}
+				this.createMetaData(feed, viewer, true);
+			}
+		}
+
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.statistics.setStatisticsEnabled(true);
+	}
+
+	private long countStatements(String url, int expectedSize) throws Exception {
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.viewer, 10_000));
+
+		this.statistics.clear();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get(url).header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(expectedSize)))
+				.andExpect(jsonPath("$.content[0].user.profile.headline", notNullValue()))
+				.andExpect(jsonPath("$.content[0].feedMetaData[0].user.username", notNullValue()));
+
+		return this.statistics.getPrepareStatementCount();
+	}
+
+	@Test
+	@Order(1)
+	public void otherUsersFeedsStatementCountTest() throws Exception {
+
+		/* Warm up the cached user lookup so both pages are measured alike */
+		this.countStatements("/feeds/other?limit=1", 1);
+
+		long smallPage = this.countStatements("/feeds/other?limit=2", 2);
+		long largePage = this.countStatements("/feeds/other?limit=20", 20);
+
+		/* The number of round-trips must not grow with the page size */
+		assertEquals(smallPage, largePage);
+		assertTrue(largePage <= 3, String.format("Too many statements for one page: %d", largePage));
+	}
+
+	@Test
+	@Order(2)
+	public void userFeedsStatementCountTest() throws Exception {
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.authors.get(0), 10_000));
+
+		this.statistics.clear();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=5").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].user.username", is(this.authors.get(0))));
+
+		long count = this.statistics.getPrepareStatementCount();
+		assertTrue(count <= 3, String.format("Too many statements for one page: %d", count));
+	}
+
+	@Test
+	@Order(3)
+	public void pagedOtherUsersFeedsStatementCountTest() throws Exception {
+
+		long count = this.countStatements("/feeds/other/0/10", 10);
+
+		/* The offset endpoint also pays for the count query */
+		assertTrue(count <= 4, String.format("Too many statements for one page: %d", count));
+	}
+
+	@Test
+	@Order(4)
+	public void feedCountersIntegrationTest() throws Exception {
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.viewer, 10_000));
+
+		User author = this.userRepository.findByUsername(this.authors.get(0)).get();
+
+		Feed feed = new Feed();
+		feed.setUser(author);
+		feed.setContent("Feed with counters");
+		feed.setCreatedOn(Timestamp.from(Instant.now()));
+		int feedId = this.feedRepository.save(feed).getFeedId();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, jwt)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"isLike\": true}"))
+				.andExpect(status().isOk());
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, jwt)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"comment\": \"Nice\"}"))
+				.andExpect(status().isOk());
+
+		/* A second like of the same user is rejected */
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, jwt)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"isLike\": true}"))
+				.andExpect(status().is4xxClientError())
+				.andExpect(jsonPath("$.message", is(String.format("Feed already liked, feedId: %d, username: %s", feedId, this.viewer))));
+
+		/* Pending deltas are visible before they are flushed */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId).header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.likeCount", is(1)))
+				.andExpect(jsonPath("$.commentCount", is(1)));
+
+		/* The like is written behind, wait for the batch to be flushed */
+		int viewerId = this.userRepository.findByUsername(this.viewer).get().getUserId();
+
+		for (int i = 0; i < 50 && !this.feedMetaDataRepository.existsByFeedFeedIdAndUserUserIdAndIsLikeTrue(feedId, viewerId); i++) {
+			Thread.sleep(100);
+		}
+		assertTrue(this.feedMetaDataRepository.existsByFeedFeedIdAndUserUserIdAndIsLikeTrue(feedId, viewerId));
+
+		this.feedCounterService.flush();
+
+		Feed flushed = this.feedRepository.findById(feedId).get();
+		assertEquals(1, flushed.getLikeCount());
+		assertEquals(1, flushed.getCommentCount());
+	}
+
+	@Test
+	@Order(5)
+	public void previewFeedsIntegrationTest() throws Exception {
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.viewer, 10_000));
+
+		this.statistics.clear();
+
+		/* Preview pages carry the newest comments only, never the full metadata list */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/other?limit=10&preview=true").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(10)))
+				.andExpect(jsonPath("$.content[1].feedMetaData").doesNotExist())
+				.andExpect(jsonPath("$.content[1].latestComments.length()", is(3)))
+				.andExpect(jsonPath("$.content[1].latestComments[0].isLike", is(false)))
+				.andExpect(jsonPath("$.content[1].latestComments[0].user.username", notNullValue()));
+
+		long count = this.statistics.getPrepareStatementCount();
+		assertTrue(count <= 4, String.format("Too many statements for one page: %d", count));
+	}
+
+	@Test
+	@Order(6)
+	public void feedCommentsPaginationIntegrationTest() throws Exception {
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.viewer, 10_000));
+
+		int feedId = this.feedRepository.findAll().get(0).getFeedId();
+
+		String body = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId + "/comments?limit=2")
+						.header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(2)))
+				.andExpect(jsonPath("$.content[0].comment", notNullValue()))
+				.andExpect(jsonPath("$.nextCursor", notNullValue()))
+				.andReturn().getResponse().getContentAsString();
+
+		String cursor = JsonPath.read(body, "$.nextCursor");
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId + "/comments?limit=2&before=" + cursor)
+						.header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(1)))
+				.andExpect(jsonPath("$.nextCursor", nullValue()));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId + "/likes?limit=20").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(4)))
+				.andExpect(jsonPath("$.content[0].isLike", is(true)));
+	}
+
+	@Test
+	@Order(7)
+	public void feedViewCacheIntegrationTest() throws Exception {
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.viewer, 10_000));
+
+		int feedId = this.feedRepository.findAll().get(1).getFeedId();
+
+		String body = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId).header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		int comments = JsonPath.read(body, "$.commentCount");
+
+		/* The second read is served from the cache without any statement */
+		this.statistics.clear();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId).header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.feedId", is(feedId)))
+				.andExpect(jsonPath("$.commentCount", is(comments)));
+
+		assertEquals(0, this.statistics.getPrepareStatementCount());
+
+		/* A new comment drops the cached view */
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, jwt)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"comment\": \"Cached\"}"))
+				.andExpect(status().isOk());
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId).header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.commentCount", is(comments + 1)));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/stats/feeds").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.hitCount", is(1)))
+				.andExpect(jsonPath("$.missCount", notNullValue()));
+	}
+
+	@Test
+	@Order(8)
+	public void userSecondLevelCacheTest() throws Exception {
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.viewer, 10_000));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=5").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk());
+
+		/* The signed in user is now resolved from the query and entity caches */
+		this.statistics.clear();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=5").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk());
+
+		assertEquals(1, this.statistics.getQueryCacheHitCount());
+		assertEquals(1, this.statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	@Order(9)
+	public void createFeedWithUserIdClaimTest() throws Exception {
+
+		User viewer = this.userRepository.findByUsername(this.viewer).get();
+
+		String jwt = String.format("Bearer %s",
+				this.jwtService.generateJwtToken(viewer.getUsername(), viewer.getUserId(), 10_000));
+
+		this.statistics.clear();
+
+		/* The author is set by id, the user is never looked up by username */
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds").header(AUTHORIZATION, jwt)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"content\": \"Posted by id\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", is("Posted by id")))
+				.andExpect(jsonPath("$.user.username", is(this.viewer)));
+
+		assertEquals(0, this.statistics.getQueryExecutionCount());
+		assertTrue(this.statistics.getPrepareStatementCount() <= 2,
+				String.format("Too many statements for one insert: %d", this.statistics.getPrepareStatementCount()));
+	}
+
+	@Test
+	@Order(10)
+	public void verifiedTokenCacheTest() throws Exception {
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.viewer, 10_000));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=1").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk());
+
+		long verifications = this.jwtService.getStatistics().getVerificationCount();
+
+		/* The token was verified by the first request, this one hits the cache */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/stats/jwt").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.verificationCount", is((int) verifications)))
+				.andExpect(jsonPath("$.cache.hitCount", notNullValue()));
+
+		assertEquals(verifications, this.jwtService.getStatistics().getVerificationCount());
+	}
+
+	private List<Integer> timelineFeedIds(String jwt) throws Exception {
+		String body = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/timeline?limit=5").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		return JsonPath.read(body, "$.content[*].feedId");
+	}
+
+	@Test
+	@Order(11)
+	public void homeTimelineTest() throws Exception {
+
+		User author = this.userRepository.findByUsername(this.authors.get(1)).get();
+
+		String authorJwt = String.format("Bearer %s",
+				this.jwtService.generateJwtToken(author.getUsername(), author.getUserId(), 10_000));
+		String viewerJwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.viewer, 10_000));
+
+		/* Loads the viewer's timeline, older feeds come from the keyset fallback */
+		assertEquals(5, this.timelineFeedIds(viewerJwt).size());
+
+		String body = this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds").header(AUTHORIZATION, authorJwt)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"content\": \"Fanned out\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		int feedId = JsonPath.read(body, "$.feedId");
+
+		/* Added to the recent feeds once the commit went through */
+		List<Integer> feedIds = this.timelineFeedIds(viewerJwt);
+		for (int i = 0; i < 50 && !feedIds.contains(feedId); i++) {
+			Thread.sleep(20);
+			feedIds = this.timelineFeedIds(viewerJwt);
+		}
+		assertEquals(feedId, feedIds.get(0));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.delete("/feeds/" + feedId).header(AUTHORIZATION, authorJwt))
+				.andExpect(status().isOk());
+
+		feedIds = this.timelineFeedIds(viewerJwt);
+		for (int i = 0; i < 50 && feedIds.contains(feedId); i++) {
+			Thread.sleep(20);
+			feedIds = this.timelineFeedIds(viewerJwt);
+		}
+		assertTrue(!feedIds.contains(feedId), "Deleted feed is still on the timeline");
+		assertEquals(5, feedIds.size());
+	}
+
+	@Test
+	@Order(12)
+	public void followingTimelineTest() throws Exception {
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.viewer, 10_000));
+
+		for (String author : List.of(this.authors.get(0), this.authors.get(2))) {
+			this.mockMvc.perform(MockMvcRequestBuilders.post("/user/follow/" + author).header(AUTHORIZATION, jwt))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.following", is(true)))
+					.andExpect(jsonPath("$.followerCount", is(1)));
+		}
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/user/follow/" + this.viewer).header(AUTHORIZATION, jwt))
+				.andExpect(status().isBadRequest());
+
+		List<Integer> expected = this.feedRepository.findAll().stream()
+				.filter(f -> !f.getUser().getUsername().equals(this.authors.get(1))
+						&& !f.getUser().getUsername().equals(this.viewer))
+				.map(Feed::getFeedId).sorted(Comparator.reverseOrder()).toList();
+
+		/* Walks every page, the merged rings first and then the fallback query */
+		List<Integer> feedIds = new ArrayList<>();
+		String cursor = null;
+
+		do {
+			String body = this.mockMvc.perform(MockMvcRequestBuilders
+					.get("/feeds/timeline?following=true&limit=5" + (cursor == null ? "" : "&before=" + cursor))
+					.header(AUTHORIZATION, jwt))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+
+			feedIds.addAll(JsonPath.read(body, "$.content[*].feedId"));
+			cursor = JsonPath.read(body, "$.nextCursor");
+		} while (cursor != null);
+
+		assertEquals(expected, feedIds);
+
+		this.mockMvc.perform(MockMvcRequestBuilders.delete("/user/follow/" + this.authors.get(2)).header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.following", is(false)))
+				.andExpect(jsonPath("$.followerCount", is(0)));
+
+		int remaining = (int) this.feedRepository.findAll().stream()
+				.filter(f -> f.getUser().getUsername().equals(this.authors.get(0))).count();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/timeline?following=true&limit=20").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(remaining)))
+				.andExpect(jsonPath("$.content[" + (remaining - 1) + "].user.username", is(this.authors.get(0))));
+	}
+
+	@Test
+	@Order(13)
+	public void trendingFeedsTest() throws Exception {
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.viewer, 10_000));
+
+		int feedId = this.feedRepository.findAll().stream()
+				.filter(f -> f.getUser().getUsername().equals(this.authors.get(2)))
+				.mapToInt(Feed::getFeedId).min().getAsInt();
+
+		/* Three comments outweigh the single like and comment earlier tests added */
+		for (int i = 0; i < 3; i++) {
+			this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, jwt)
+					.contentType(MediaType.APPLICATION_JSON).content("{\"comment\": \"Trending " + i + "\"}"))
+					.andExpect(status().isOk());
+		}
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/trending?limit=3").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].feedId", is(feedId)))
+				.andExpect(jsonPath("$[0].score", closeTo(6.0, 0.01)))
+				.andExpect(jsonPath("$[0].feed.feedId", is(feedId)))
+				.andExpect(jsonPath("$[0].feed.user.username", is(this.authors.get(2))));
+	}
+
+	@Test
+	@Order(14)
+	public void searchFeedsTest() throws Exception {
+
+		User viewer = this.userRepository.findByUsername(this.viewer).get();
+
+		String jwt = String.format("Bearer %s",
+				this.jwtService.generateJwtToken(viewer.getUsername(), viewer.getUserId(), 10_000));
+
+		List<Integer> feedIds = new ArrayList<>();
+
+		for (String content : List.of("The quick brown fox", "A quick fox, a QUICK fox!", "Nothing to see")) {
+			String body = this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds").header(AUTHORIZATION, jwt)
+					.contentType(MediaType.APPLICATION_JSON).content("{\"content\": \"" + content + "\"}"))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+
+			feedIds.add(JsonPath.read(body, "$.feedId"));
+		}
+
+		/* Every term must match, more occurrences rank higher */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search?q=Quick fox").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()", is(2)))
+				.andExpect(jsonPath("$[0].feedId", is(feedIds.get(1))))
+				.andExpect(jsonPath("$[1].feedId", is(feedIds.get(0))));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search?q=brown fox").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()", is(1)))
+				.andExpect(jsonPath("$[0].content", is("The quick brown fox")));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.delete("/feeds/" + feedIds.get(1)).header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk());
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search?q=quick").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()", is(1)))
+				.andExpect(jsonPath("$[0].feedId", is(feedIds.get(0))));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search?q=quick zebra").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()", is(0)));
+	}
+
+	private List<Integer> taggedFeedIds(String jwt, String tag) throws Exception {
+		String body = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/tag/" + tag + "?limit=20").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		return JsonPath.read(body, "$.content[*].feedId");
+	}
+
+	private List<Integer> mentionedFeedIds(String jwt) throws Exception {
+		String body = this.mockMvc.perform(MockMvcRequestBuilders.get("/user/mentions").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		return JsonPath.read(body, "$.content[*].feedId");
+	}
+
+	@Test
+	@Order(15)
+	public void tagsAndMentionsTest() throws Exception {
+
+		User viewer = this.userRepository.findByUsername(this.viewer).get();
+		User author = this.userRepository.findByUsername(this.authors.get(0)).get();
+
+		String jwt = String.format("Bearer %s",
+				this.jwtService.generateJwtToken(viewer.getUsername(), viewer.getUserId(), 10_000));
+		String authorJwt = String.format("Bearer %s",
+				this.jwtService.generateJwtToken(author.getUsername(), author.getUserId(), 10_000));
+
+		List<Integer> feedIds = new ArrayList<>();
+
+		for (String content : List.of("Hello #Java @FeedAuthor1", "More #java and #Spring, cc @feedauthor1.",
+				"Mail me@example.com, @nobody #")) {
+			String body = this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds").header(AUTHORIZATION, jwt)
+					.contentType(MediaType.APPLICATION_JSON).content("{\"content\": \"" + content + "\"}"))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+
+			feedIds.add(JsonPath.read(body, "$.feedId"));
+		}
+
+		/* Extracted after the commit on the writer thread */
+		List<Integer> tagged = this.taggedFeedIds(jwt, "java");
+		for (int i = 0; i < 50 && tagged.size() < 2; i++) {
+			Thread.sleep(20);
+			tagged = this.taggedFeedIds(jwt, "java");
+		}
+		assertEquals(List.of(feedIds.get(1), feedIds.get(0)), tagged);
+		assertEquals(List.of(feedIds.get(1)), this.taggedFeedIds(jwt, "Spring"));
+
+		String body = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/tag/JAVA?limit=1").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].feedId", is(feedIds.get(1))))
+				.andReturn().getResponse().getContentAsString();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/tag/java?limit=1&before=" + JsonPath.read(body, "$.nextCursor"))
+				.header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].feedId", is(feedIds.get(0))))
+				.andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/user/mentions").header(AUTHORIZATION, authorJwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(2)))
+				.andExpect(jsonPath("$.content[0].feedId", is(feedIds.get(1))))
+				.andExpect(jsonPath("$.content[0].authorUsername", is(this.viewer)));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.delete("/feeds/" + feedIds.get(0)).header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk());
+
+		tagged = this.taggedFeedIds(jwt, "java");
+		for (int i = 0; i < 50 && tagged.size() > 1; i++) {
+			Thread.sleep(20);
+			tagged = this.taggedFeedIds(jwt, "java");
+		}
+		assertEquals(List.of(feedIds.get(1)), tagged);
+
+		/* The Mention rows are deleted on the writer thread as well */
+		List<Integer> mentioned = this.mentionedFeedIds(authorJwt);
+		for (int i = 0; i < 50 && mentioned.size() > 1; i++) {
+			Thread.sleep(20);
+			mentioned = this.mentionedFeedIds(authorJwt);
+		}
+		assertEquals(List.of(feedIds.get(1)), mentioned);
+	}
+}
@@ -0,0 +1,121 @@
+package com.bptn.feedapp.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.Profile;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.FeedMetaDataRepository;
+import com.bptn.feedapp.repository.FeedRepository;
+import com.bptn.feedapp.repository.UserRepository;
+import com.bptn.feedapp.security.JwtService;
+
+@ActiveProfiles("test")
+/* Likes saved on the request thread and checked against the table, so only the unique index settles a race */
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:likeracedb", "email.outbox.poll-interval=3600000",
+		"feed.likes.ingest.enabled=false", "feed.likes.membership.enabled=false" })
+@AutoConfigureMockMvc
+@DirtiesContext
+public class FeedLikeRaceTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	JwtService jwtService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	FeedRepository feedRepository;
+
+	@Autowired
+	FeedMetaDataRepository feedMetaDataRepository;
+
+	private User createUser(String username) {
+		User user = new User();
+
+		user.setFirstName(username);
+		user.setLastName("Test");
+		user.setUsername(username);
+		user.setPassword("password");
+		user.setPhone("987654321");
+		user.setEmailId(username + "@example.com");
+		user.setEmailVerified(true);
+		user.setCreatedOn(Timestamp.from(Instant.now()));
+
+		Profile profile = new Profile();
+		profile.setHeadline("Headline of " + username);
+		profile.setUser(user);
+		user.setProfile(profile);
+
+		return this.userRepository.save(user);
+	}
+
+	@Test
+	public void concurrentLikesTest() throws Exception {
+
+		User author = this.createUser("raceauthor");
+		this.createUser("raceliker");
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken("raceliker", 10_000));
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+			/* Several rounds, the two requests do not overlap every time */
+			for (int round = 0; round < 5; round++) {
+				Feed feed = new Feed();
+				feed.setUser(author);
+				feed.setContent("Feed liked twice at once " + round);
+				feed.setCreatedOn(Timestamp.from(Instant.now()));
+				int feedId = this.feedRepository.save(feed).getFeedId();
+
+				CyclicBarrier barrier = new CyclicBarrier(2);
+				List<Future<Integer>> statuses = new ArrayList<>();
+
+				for (int i = 0; i < 2; i++) {
+					statuses.add(executor.submit(() -> {
+						barrier.await();
+						return this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId)
+								.header(AUTHORIZATION, jwt).contentType(MediaType.APPLICATION_JSON)
+								.content("{\"isLike\": true}")).andReturn().getResponse().getStatus();
+					}));
+				}
+
+				List<Integer> results = new ArrayList<>();
+				for (Future<Integer> status : statuses) {
+					results.add(status.get());
+				}
+
+				/* One like saved, the other rejected with LikeExistException */
+				assertEquals(1, results.stream().filter(s -> s == 200).count(), "statuses: " + results);
+				assertEquals(1, results.stream().filter(s -> s == 400).count(), "statuses: " + results);
+				assertEquals(1, this.feedMetaDataRepository.findLikeUserIds(feedId).size());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
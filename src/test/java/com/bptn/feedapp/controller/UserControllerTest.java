@@ -8,15 +8,24 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -25,9 +34,12 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 
+import com.bptn.feedapp.jpa.EmailOutbox;
 import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.EmailOutboxRepository;
 import com.bptn.feedapp.repository.UserRepository;
 import com.bptn.feedapp.security.JwtService;
+import com.bptn.feedapp.service.UserAvailabilityService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
@@ -60,6 +72,12 @@ public class UserControllerTest {
 	    
 	@Autowired
 	PasswordEncoder passwordEncoder;
+
+	@Autowired
+	UserAvailabilityService userAvailabilityService;
+
+	@Autowired
+	EmailOutboxRepository emailOutboxRepository;
 	
 	@BeforeEach
 	public void setup() {
@@ -245,4 +263,207 @@ public class UserControllerTest {
 
 	}
 
+	@Test
+	@Order(8)
+	public void availabilityIntegrationTest() throws Exception {
+
+		/* The signed up user is taken, confirmed with a query */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/user/available")
+					.param("username", this.user.getUsername()).param("emailId", this.user.getEmailId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.username", is(false)))
+				.andExpect(jsonPath("$.emailId", is(false)));
+
+		long queried = this.userAvailabilityService.getQueriedCount();
+
+		/* Unseen values are answered by the filters alone */
+		for (int i = 0; i < 20; i++) {
+			this.mockMvc.perform(MockMvcRequestBuilders.get("/user/available")
+						.param("username", "freename" + i).param("emailId", "free" + i + "@example.com"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.username", is(true)))
+					.andExpect(jsonPath("$.emailId", is(true)));
+		}
+
+		assertTrue(this.userAvailabilityService.getQueriedCount() - queried <= 2, "Filters should answer most checks");
+	}
+
+	@Test
+	@Order(9)
+	public void listAndExportUsersIntegrationTest() throws Exception {
+
+		for (String username : List.of("listuser1", "listuser2")) {
+			User other = new User();
+			other.setFirstName("List");
+			other.setLastName("User");
+			other.setUsername(username);
+			other.setPassword(this.passwordEncoder.encode("password"));
+			other.setPhone("987654321");
+			other.setEmailId(username + "@example.com");
+			other.setEmailVerified(true);
+			other.setCreatedOn(Timestamp.from(Instant.now()));
+			this.userRepository.save(other);
+		}
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.user.getUsername(), 10_000));
+
+		/* First page, the cursor points at the second user */
+		String body = this.mockMvc.perform(MockMvcRequestBuilders.get("/user/?limit=2").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(2)))
+				.andExpect(jsonPath("$.content[0].username", is(this.user.getUsername())))
+				.andExpect(jsonPath("$.content[0].password").doesNotExist())
+				.andReturn().getResponse().getContentAsString();
+
+		String cursor = this.objectMapper.readTree(body).get("nextCursor").asText();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/user/?limit=2&after=" + cursor).header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(1)))
+				.andExpect(jsonPath("$.content[0].username", is("listuser2")))
+				.andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+		/* The export streams one JSON object per line, without passwords */
+		MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.get("/user/export").header(AUTHORIZATION, jwt))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		String export = this.mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString();
+
+		List<String> lines = export.lines().toList();
+
+		assertEquals(3, lines.size());
+		assertEquals("listuser2", this.objectMapper.readTree(lines.get(2)).get("username").asText());
+		assertFalse(export.contains("password"), "Passwords must not be exported");
+	}
+
+	@Test
+	@Order(10)
+	public void importUsersIntegrationTest() throws Exception {
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken(this.user.getUsername(), 10_000));
+
+		String csv = String.join("\n",
+				"username,emailId,password,firstName,lastName,phone,emailVerified",
+				"Imported1,imported1@example.com,secret1,\"Smith, Jr.\",One,123,true",
+				"imported2,imported2@example.com,secret2,Imported,Two,456",
+				"johndoe,other@example.com,secret3,Taken,Username,789",
+				"imported3,imported3@example.com,,No,Password,000",
+				"imported4,IMPORTED2@example.com,secret4,Repeated,Email,111");
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/user/import").header(AUTHORIZATION, jwt)
+					.contentType("text/csv").content(csv))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.total", is(5)))
+				.andExpect(jsonPath("$.imported", is(2)))
+				.andExpect(jsonPath("$.rejected", is(3)))
+				.andExpect(jsonPath("$.rejects[0].line", is(5)))
+				.andExpect(jsonPath("$.rejects[0].reason", is("Password is required")))
+				.andExpect(jsonPath("$.rejects[1].line", is(6)))
+				.andExpect(jsonPath("$.rejects[2].reason", is("Username already exists, johndoe")));
+
+		Optional<User> opt = this.userRepository.findByUsername("imported1");
+		assertTrue(opt.isPresent(), "User Should Exist");
+		assertEquals("Smith, Jr.", opt.get().getFirstName());
+		assertTrue(this.passwordEncoder.matches("secret1", opt.get().getPassword()));
+
+		/* Imported addresses are verified like any signup */
+		int importedId = opt.get().getUserId();
+		assertFalse(opt.get().getEmailVerified());
+		assertTrue(this.emailOutboxRepository.findAll().stream()
+				.anyMatch(e -> e.getUserId() == importedId && e.getType() == EmailOutbox.Type.VERIFY_EMAIL));
+
+		String ndjson = "{\"username\":\"imported5\",\"emailId\":\"imported5@example.com\",\"password\":\"secret5\"}\n"
+				+ "{not json}\n";
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/user/import").header(AUTHORIZATION, jwt)
+					.contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported", is(1)))
+				.andExpect(jsonPath("$.rejects[0].line", is(2)));
+
+		/* The availability filters know the imported users */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/user/available").param("username", "imported5"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.username", is(false)));
+	}
+
+	@Test
+	@Order(11)
+	public void loginRehashIntegrationTest() throws Exception {
+
+		/* A hash made with a lower cost than the configured one */
+		User other = this.userRepository.findByUsername("listuser1").get();
+		other.setPassword(new BCryptPasswordEncoder(4).encode("password"));
+		this.userRepository.save(other);
+
+		ObjectNode root = this.objectMapper.createObjectNode();
+		root.put("username", "listuser1");
+		root.put("password", "password");
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/user/login")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(this.objectMapper.writeValueAsString(root)))
+				.andExpect(status().isOk());
+
+		/* The password was hashed again with the configured cost */
+		String password = this.userRepository.findByUsername("listuser1").get().getPassword();
+		assertTrue(password.startsWith("$2a$10$"), "Password should be rehashed");
+		assertTrue(this.passwordEncoder.matches("password", password));
+
+		String jwt = String.format("Bearer %s", this.jwtService.generateJwtToken("listuser1", 10_000));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/stats/hash").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.strength", is(10)))
+				.andExpect(jsonPath("$.upgradeCount", is(1)))
+				.andExpect(jsonPath("$.rejectedCount", is(0)));
+	}
+
+	@Test
+	@Order(12)
+	public void refreshTokenIntegrationTest() throws Exception {
+
+		ObjectNode root = this.objectMapper.createObjectNode();
+		root.put("username", "listuser1");
+		root.put("password", "password");
+
+		String refreshToken = this.mockMvc.perform(MockMvcRequestBuilders.post("/user/login")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(this.objectMapper.writeValueAsString(root)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("Refresh-Token");
+
+		ObjectNode refresh = this.objectMapper.createObjectNode();
+		refresh.put("refreshToken", refreshToken);
+
+		/* A new JWT and a new refresh token, without the password */
+		MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.post("/user/token/refresh")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(this.objectMapper.writeValueAsString(refresh)))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(AUTHORIZATION))
+				.andReturn();
+
+		String rotated = result.getResponse().getHeader("Refresh-Token");
+		assertFalse(refreshToken.equals(rotated), "Refresh token should be rotated");
+		assertEquals("listuser1", this.jwtService.getSubject(result.getResponse().getHeader(AUTHORIZATION)));
+
+		/* Replaying the used token revokes the whole session */
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/user/token/refresh")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(this.objectMapper.writeValueAsString(refresh)))
+				.andExpect(status().isUnauthorized())
+				.andExpect(jsonPath("$.message", is("Refresh token is invalid or has expired")));
+
+		refresh.put("refreshToken", rotated);
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/user/token/refresh")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(this.objectMapper.writeValueAsString(refresh)))
+				.andExpect(status().isUnauthorized());
+	}
+
 }
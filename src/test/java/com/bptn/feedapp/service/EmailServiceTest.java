@@ -0,0 +1,214 @@
+package com.bptn.feedapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import com.bptn.feedapp.jpa.EmailOutbox;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.FeedMetaData;
+import com.bptn.feedapp.repository.EmailOutboxRepository;
+import com.bptn.feedapp.repository.FeedMetaDataRepository;
+import com.bptn.feedapp.repository.FeedRepository;
+import com.bptn.feedapp.repository.UserRepository;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import jakarta.mail.internet.MimeMessage;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = { "spring.mail.host=localhost", "spring.mail.port=3025",
+		"spring.mail.username=a@b.c", "spring.mail.password=x", "spring.datasource.url=jdbc:h2:mem:emaildb",
+		"email.outbox.poll-interval=3600000",
+		"email.digest.partition-size=2", "email.digest.batch-size=1" })
+@DirtiesContext
+public class EmailServiceTest {
+
+	@RegisterExtension
+	static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+			.withConfiguration(GreenMailConfiguration.aConfig().withUser("a@b.c", "x"));
+
+	@Autowired
+	EmailService emailService;
+
+	@Autowired
+	MailTransportService mailTransportService;
+
+	@Autowired
+	EmailOutboxService emailOutboxService;
+
+	@Autowired
+	EmailOutboxRepository emailOutboxRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	TemplateEngine templateEngine;
+
+	@Autowired
+	DigestService digestService;
+
+	@Autowired
+	FeedRepository feedRepository;
+
+	@Autowired
+	FeedMetaDataRepository feedMetaDataRepository;
+
+	private User user(int i) {
+		User user = new User();
+		user.setFirstName("Email");
+		user.setLastName("Test");
+		user.setUsername("emailuser" + i);
+		user.setEmailId(String.format("emailuser%d@test.com", i));
+		return user;
+	}
+
+	@Test
+	public void emailsShareSmtpSessionsTest() throws Exception {
+
+		long sessions = this.mailTransportService.getSessionsOpened();
+
+		List<CompletableFuture<Void>> sent = IntStream.range(0, 20)
+				.mapToObj(i -> this.emailService.sendVerificationEmail(this.user(i))).toList();
+
+		CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+		MimeMessage[] received = greenMail.getReceivedMessages();
+		assertEquals(20, received.length);
+		assertTrue(received[0].getSubject().startsWith("Welcome Email Test"));
+
+		/* At most one session per sender thread, not one per email */
+		long opened = this.mailTransportService.getSessionsOpened() - sessions;
+		assertTrue(opened <= 2, String.format("Too many SMTP sessions: %d", opened));
+	}
+
+	@Test
+	public void outboxSendsPendingEmailOnceTest() throws Exception {
+
+		User user = this.user(100);
+		user.setPassword("password");
+		user.setEmailVerified(false);
+		user.setCreatedOn(Timestamp.from(Instant.now()));
+		user = this.userRepository.save(user);
+
+		/* Two requests at once, the one losing the race on the unique index is a no-op */
+		User queued = user;
+		CyclicBarrier barrier = new CyclicBarrier(2);
+
+		List<CompletableFuture<Void>> requests = IntStream.range(0, 2).mapToObj(i -> CompletableFuture.runAsync(() -> {
+			try {
+				barrier.await();
+			} catch (Exception ex) {
+				throw new IllegalStateException(ex);
+			}
+			this.emailOutboxService.enqueue(queued, EmailOutbox.Type.VERIFY_EMAIL);
+		})).toList();
+
+		CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+		/* A later request is a duplicate of the pending one */
+		this.emailOutboxService.enqueue(user, EmailOutbox.Type.VERIFY_EMAIL);
+
+		assertEquals(1, this.emailOutboxRepository.count());
+
+		this.emailOutboxService.dispatch();
+
+		EmailOutbox email = this.emailOutboxRepository.findAll().get(0);
+		assertEquals(EmailOutbox.Status.SENT, email.getStatus());
+		assertEquals(0, email.getAttempts());
+
+		MimeMessage[] received = greenMail.getReceivedMessages();
+		assertEquals(1, received.length);
+		assertEquals(user.getEmailId(), received[0].getAllRecipients()[0].toString());
+	}
+
+	@Test
+	public void compiledTemplateMatchesThymeleafTest() {
+
+		User user = this.user(7);
+		user.setLastName("O'Neil & <Sons>");
+
+		for (String templateName : List.of("verifyEmail", "resetPassword")) {
+			Context context = new Context();
+			context.setVariable("user", user);
+			context.setVariable("client", "http://localhost:3000");
+			context.setVariable("param", "user/verifyEmail");
+			context.setVariable("token", "a.b&c");
+
+			CompiledTemplate compiled = CompiledTemplate.compile(this.templateEngine, templateName,
+					"http://localhost:3000", "user/verifyEmail");
+
+			assertEquals(this.templateEngine.process(templateName, context), compiled.render(user, "a.b&c"));
+		}
+	}
+
+	@Test
+	public void digestIsSentOncePerPeriodTest() throws Exception {
+
+		Timestamp yesterday = Timestamp.from(Instant.now().minus(1, ChronoUnit.DAYS));
+
+		List<User> users = IntStream.range(200, 205).mapToObj(i -> {
+			User user = this.user(i);
+			user.setPassword("password");
+			user.setEmailVerified(i != 204);
+			user.setCreatedOn(yesterday);
+			return this.userRepository.save(user);
+		}).toList();
+
+		/* Every user but the last two gets a like and a comment from everyone else */
+		for (User author : users.subList(0, 3)) {
+			Feed feed = new Feed();
+			feed.setUser(author);
+			feed.setContent("Digest feed");
+			feed.setCreatedOn(yesterday);
+			feed = this.feedRepository.save(feed);
+
+			for (User other : users) {
+				if (other != author) {
+					for (boolean isLike : List.of(true, false)) {
+						FeedMetaData meta = new FeedMetaData();
+						meta.setFeed(feed);
+						meta.setUser(other);
+						meta.setIsLike(isLike);
+						meta.setComment(isLike ? "" : "Nice");
+						meta.setCreatedOn(yesterday);
+						this.feedMetaDataRepository.save(meta);
+					}
+				}
+			}
+		}
+
+		Instant periodEnd = Instant.now().plus(1, ChronoUnit.DAYS);
+
+		assertEquals(3, this.digestService.run(periodEnd));
+
+		MimeMessage[] received = greenMail.getReceivedMessages();
+		assertEquals(3, received.length);
+		assertTrue(received[0].getContent().toString().contains("<b>4</b> likes and <b>4</b> comments"));
+
+		/* The period is checkpointed, running it again sends nothing */
+		assertEquals(0, this.digestService.run(periodEnd));
+		assertEquals(3, greenMail.getReceivedMessages().length);
+	}
+}
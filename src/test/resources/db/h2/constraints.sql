@@ -0,0 +1,17 @@
+-- The partial unique indexes of the migrations, which H2 does not support.
+-- A generated column that is NULL outside the indexed rows stands in for the
+-- WHERE clause, NULLs never collide in a unique index.
+
+-- One like per user and feed, comments are not restricted
+ALTER TABLE "FeedMetaData" ADD COLUMN IF NOT EXISTS "likeUserId" INTEGER
+    GENERATED ALWAYS AS (CASE WHEN "isLike" THEN "actionUserId" END);
+
+CREATE UNIQUE INDEX IF NOT EXISTS "FeedMetaData_feedId_actionUserId_like_key"
+    ON "FeedMetaData" ("feedId", "likeUserId");
+
+-- One pending email per dedup key
+ALTER TABLE "EmailOutbox" ADD COLUMN IF NOT EXISTS "pendingDedupKey" VARCHAR(255)
+    GENERATED ALWAYS AS (CASE WHEN status = 'PENDING' THEN "dedupKey" END);
+
+CREATE UNIQUE INDEX IF NOT EXISTS "EmailOutbox_dedupKey_pending_key"
+    ON "EmailOutbox" ("pendingDedupKey");